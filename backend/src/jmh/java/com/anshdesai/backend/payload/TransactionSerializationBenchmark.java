@@ -0,0 +1,87 @@
+package com.anshdesai.backend.payload;
+
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of transaction lists: the entity itself and the TransactionView
+ * the listing endpoints return. Output goes to a null stream, as a response body would be
+ * streamed, so only serialization is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class TransactionSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Transaction> transactions;
+    private List<TransactionView> views;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Account account = Account.builder().id(UUID.randomUUID()).plaidAccountId("acc-checking")
+                .name("Checking").type("depository").balance(BigDecimal.TEN).build();
+        List<Category> categories = new ArrayList<>();
+        for (String name : List.of("Food And Drink", "Transportation", "Travel", "Entertainment", "Income")) {
+            categories.add(Category.builder().id(UUID.randomUUID()).name(name).colorHex("#3b82f6").build());
+        }
+
+        transactions = new ArrayList<>(rows);
+        views = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = Transaction.builder()
+                    .id(UUID.randomUUID())
+                    .account(account)
+                    .plaidTransactionId("txn-" + i)
+                    .amount(BigDecimal.valueOf(random.nextInt(50_000), 2))
+                    .date(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)))
+                    .description("POS PURCHASE " + random.nextInt(10_000))
+                    .plaidCategory("FOOD_AND_DRINK")
+                    .plaidDetailedCategory("FOOD_AND_DRINK_COFFEE")
+                    .category(categories.get(random.nextInt(categories.size())))
+                    .build();
+            transactions.add(transaction);
+            views.add(TransactionView.from(transaction));
+        }
+    }
+
+    @Benchmark
+    public void serializeEntities() {
+        jsonMapper.writeValue(OutputStream.nullOutputStream(), transactions);
+    }
+
+    @Benchmark
+    public void serializeViews() {
+        jsonMapper.writeValue(OutputStream.nullOutputStream(), views);
+    }
+}
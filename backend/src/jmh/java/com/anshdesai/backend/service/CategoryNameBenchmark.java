@@ -0,0 +1,47 @@
+package com.anshdesai.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plaid category code to display name, formatted from scratch and through the cache
+ * the sync uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CategoryNameBenchmark {
+
+    private static final String[] PLAID_CATEGORIES = {
+            "FOOD_AND_DRINK", "GENERAL_MERCHANDISE", "TRANSPORTATION", "RENT_AND_UTILITIES",
+            "LOAN_PAYMENTS", "TRANSFER_OUT", "PERSONAL_CARE", "GENERAL_SERVICES"};
+
+    private int next;
+
+    @Benchmark
+    public String formatCategoryName() {
+        return TransactionSyncService.formatCategoryName(nextCategory());
+    }
+
+    @Benchmark
+    public String cachedDisplayName() {
+        return TransactionSyncService.displayName(nextCategory());
+    }
+
+    private String nextCategory() {
+        next = (next + 1) & (PLAID_CATEGORIES.length - 1);
+        return PLAID_CATEGORIES[next];
+    }
+}
@@ -0,0 +1,234 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.StatementCounter;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.CategorizationRule.MatchType;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.AccountRepository;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import com.plaid.client.model.AccountBalance;
+import com.plaid.client.model.AccountBase;
+import com.plaid.client.model.PersonalFinanceCategory;
+import com.plaid.client.model.Transaction;
+import com.plaid.client.model.TransactionsSyncResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * CPU cost of one incremental sync of one item, everything except the database and Plaid:
+ * paging through synthetic /transactions/sync responses, deduplication, mapping and
+ * category assignment. Repositories and PlaidService are stub-only mocks, which record
+ * no invocations, so memory stays flat across iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionSyncBenchmark {
+
+    // Plaid returns at most 500 transactions per /transactions/sync page
+    private static final int PAGE_SIZE = 500;
+
+    private static final String[] PLAID_CATEGORIES = {
+            "FOOD_AND_DRINK", "GENERAL_MERCHANDISE", "TRANSPORTATION", "TRAVEL", "ENTERTAINMENT",
+            "RENT_AND_UTILITIES", "LOAN_PAYMENTS", "INCOME", "TRANSFER_OUT", "PERSONAL_CARE",
+            "MEDICAL", "GENERAL_SERVICES"};
+
+    private static final String[] MERCHANTS = {
+            "STARBUCKS STORE 1234", "UBER TRIP", "DELTA AIR 0062", "AMAZON MKTPLACE PMTS",
+            "SQ *CORNER BAKERY", "SHELL OIL 5744", "NETFLIX.COM", "PAYROLL ACME CORP",
+            "WHOLEFDS MKT 10234", "CVS/PHARMACY #0123"};
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    // Share of the incoming transactions that are already stored and must be skipped
+    @Param({"0.05"})
+    private double duplicateRatio;
+
+    private PlaidFetchExecutor fetchExecutor;
+    private TransactionSyncService syncService;
+    private PlaidItem plaidItem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+
+        User user = User.builder().id(UUID.randomUUID()).email("benchmark@example.com").build();
+        plaidItem = PlaidItem.builder().id(UUID.randomUUID()).user(user).accessToken("access-token").build();
+        List<Account> accounts = List.of(account(plaidItem, "acc-checking"), account(plaidItem, "acc-credit"));
+        List<AccountBase> plaidAccounts = accounts.stream()
+                .map(a -> new AccountBase()
+                        .accountId(a.getPlaidAccountId())
+                        .name(a.getName())
+                        .balances(new AccountBalance().current(1_234.56)))
+                .toList();
+
+        // Synthetic pages, chained by cursor the way Plaid returns them
+        Map<String, TransactionsSyncResponse> pages = new HashMap<>();
+        Set<String> stored = new HashSet<>();
+        int pageCount = (rows + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (int page = 0; page < pageCount; page++) {
+            List<Transaction> added = new ArrayList<>();
+            for (int i = page * PAGE_SIZE; i < Math.min(rows, (page + 1) * PAGE_SIZE); i++) {
+                String id = "txn-" + i;
+                if (random.nextDouble() < duplicateRatio) {
+                    stored.add(id);
+                }
+                String plaidCategory = PLAID_CATEGORIES[random.nextInt(PLAID_CATEGORIES.length)];
+                added.add(new Transaction()
+                        .transactionId(id)
+                        .accountId(accounts.get(random.nextInt(accounts.size())).getPlaidAccountId())
+                        .amount(Math.round(random.nextDouble() * 50_000) / 100.0)
+                        .date(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)))
+                        .name(MERCHANTS[random.nextInt(MERCHANTS.length)])
+                        .personalFinanceCategory(new PersonalFinanceCategory()
+                                .primary(plaidCategory)
+                                .detailed(plaidCategory + "_OTHER")));
+            }
+            pages.put(page == 0 ? null : "cursor-" + page, new TransactionsSyncResponse()
+                    .accounts(plaidAccounts)
+                    .added(added)
+                    .modified(List.of())
+                    .removed(List.of())
+                    .nextCursor("cursor-" + (page + 1))
+                    .hasMore(page + 1 < pageCount));
+        }
+
+        // The user already has every Plaid category, plus a handful of rules
+        List<Category> categories = new ArrayList<>();
+        for (String plaidCategory : PLAID_CATEGORIES) {
+            categories.add(Category.builder().id(UUID.randomUUID()).user(user)
+                    .name(TransactionSyncService.formatCategoryName(plaidCategory)).colorHex("#000000").build());
+        }
+        RuleMatcher rules = RuleMatcher.compile(List.of(
+                rule("UBER", MatchType.STARTS_WITH, categories.get(2), 1),
+                rule("starbucks", MatchType.CONTAINS, categories.get(0), 1),
+                rule("NETFLIX.COM", MatchType.EXACT, categories.get(4), 1),
+                rule("^sq \\*.*bakery$", MatchType.REGEX, categories.get(0), 0)));
+        Map<UUID, Category> categoriesById = categories.stream()
+                .collect(Collectors.toMap(Category::getId, c -> c));
+
+        PlaidService plaidService = stub(PlaidService.class);
+        when(plaidService.syncTransactions(eq("access-token"), any()))
+                .thenAnswer(call -> pages.get(call.<String>getArgument(1)));
+
+        PlaidItemRepository plaidItemRepository = stub(PlaidItemRepository.class);
+        when(plaidItemRepository.findWithUserById(plaidItem.getId())).thenReturn(Optional.of(plaidItem));
+
+        AccountRepository accountRepository = stub(AccountRepository.class);
+        when(accountRepository.findByPlaidItem(plaidItem)).thenReturn(accounts);
+        List<AccountRepository.AccountId> accountIds = accounts.stream().map(TransactionSyncBenchmark::accountId).toList();
+        Map<UUID, Account> accountsById = accounts.stream().collect(Collectors.toMap(Account::getId, a -> a));
+        when(accountRepository.upsertForItem(any(), any(), any(), any(), any())).thenReturn(accountIds);
+        when(accountRepository.getReferenceById(any())).thenAnswer(call -> accountsById.get(call.<UUID>getArgument(0)));
+
+        TransactionRepository transactionRepository = stub(TransactionRepository.class);
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection()))
+                .thenAnswer(call -> call.<Collection<String>>getArgument(0).stream()
+                        .filter(stored::contains)
+                        .collect(Collectors.toSet()));
+        when(transactionRepository.saveAll(any())).thenAnswer(call -> call.getArgument(0));
+
+        CategoryRepository categoryRepository = stub(CategoryRepository.class);
+        when(categoryRepository.findByUser(user)).thenReturn(categories);
+        when(categoryRepository.getReferenceById(any())).thenAnswer(call -> categoriesById.get(call.<UUID>getArgument(0)));
+
+        CategorizationRuleService categorizationRuleService = stub(CategorizationRuleService.class);
+        when(categorizationRuleService.matcherFor(user.getId())).thenReturn(rules);
+
+        fetchExecutor = new PlaidFetchExecutor(8, 8, 30_000, new PlaidCircuitBreaker(5, 60),
+                new PlaidRateLimiter(1_000_000, 1_000_000));
+        syncService = new TransactionSyncService(plaidService, plaidItemRepository, accountRepository,
+                transactionRepository, categoryRepository, fetchExecutor,
+                stub(SpendingRollupService.class), categorizationRuleService,
+                new SyncMetrics(new SimpleMeterRegistry(), new StatementCounter()), stub(DataVersionService.class),
+                stub(BalanceHistoryService.class), new TransactionTemplate(stub(PlatformTransactionManager.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fetchExecutor.destroy();
+    }
+
+    @Benchmark
+    public int syncItem() {
+        // The cursor is only stored through the (stubbed) repository, so every run starts from the first page
+        return syncService.syncItem(plaidItem.getId());
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static Account account(PlaidItem plaidItem, String plaidAccountId) {
+        return Account.builder().id(UUID.randomUUID()).plaidItem(plaidItem).plaidAccountId(plaidAccountId)
+                .name(plaidAccountId).type("depository").balance(BigDecimal.TEN).build();
+    }
+
+    private static AccountRepository.AccountId accountId(Account account) {
+        return new AccountRepository.AccountId() {
+            @Override
+            public UUID getId() {
+                return account.getId();
+            }
+
+            @Override
+            public String getPlaidAccountId() {
+                return account.getPlaidAccountId();
+            }
+        };
+    }
+
+    private static CategorizationRule rule(String keyword, MatchType type, Category category, int priority) {
+        return CategorizationRule.builder()
+                .keyword(keyword)
+                .matchType(type)
+                .category(category)
+                .priority(priority)
+                .build();
+    }
+}
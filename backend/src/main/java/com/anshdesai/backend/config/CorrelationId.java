@@ -0,0 +1,42 @@
+package com.anshdesai.backend.config;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Correlation id kept in the SLF4J MDC so every log line of one request or background job
+ * can be found together. Requests get one from {@link CorrelationIdFilter}; sync and
+ * re-categorization jobs use their job id. Printed through logging.pattern.level.
+ */
+public final class CorrelationId {
+
+    public static final String MDC_KEY = "correlationId";
+
+    private CorrelationId() {
+    }
+
+    public static String generate() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Wrap a task handed to another thread so it logs under the caller's correlation id.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            MDC.setContextMap(context);
+            try {
+                return task.call();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+}
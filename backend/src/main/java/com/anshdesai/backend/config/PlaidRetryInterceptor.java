@@ -0,0 +1,72 @@
+package com.anshdesai.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries Plaid requests answered with 429 or a 5xx, for the read-only endpoints only: a 5xx on
+ * anything else (e.g. /item/public_token/exchange) may have taken effect, and repeating it could
+ * fail on a token already used or create a second item. Waits are exponential with full jitter
+ * (random up to base * 2^(attempt-1), capped at maxDelay), or Retry-After when Plaid sends one.
+ * Each retry is counted as plaid.retries{status}.
+ */
+public class PlaidRetryInterceptor implements Interceptor {
+
+    private static final Set<Integer> RETRYABLE = Set.of(429, 500, 502, 503, 504);
+    private static final Set<String> IDEMPOTENT_PATHS =
+            Set.of("/item/get", "/transactions/sync", "/transactions/get", "/webhook_verification_key/get");
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final MeterRegistry meterRegistry;
+
+    public PlaidRetryInterceptor(int maxAttempts, long baseDelayMs, long maxDelayMs, MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!IDEMPOTENT_PATHS.contains(request.url().encodedPath())) {
+            return response;
+        }
+        for (int attempt = 1; attempt < maxAttempts && RETRYABLE.contains(response.code()); attempt++) {
+            long delayMs = delayMs(attempt, response.header("Retry-After"));
+            meterRegistry.counter("plaid.retries", "status", String.valueOf(response.code())).increment();
+            response.close();
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while backing off from Plaid");
+            }
+            response = chain.proceed(request);
+        }
+        return response;
+    }
+
+    long delayMs(int attempt, String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())), maxDelayMs);
+            } catch (NumberFormatException e) {
+                // HTTP-date form: fall back to our own backoff
+            }
+        }
+        long ceiling = Math.min(baseDelayMs << Math.min(attempt - 1, 20), maxDelayMs);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -1,15 +1,22 @@
 package com.anshdesai.backend.config;
 
 import com.anshdesai.backend.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -24,6 +31,10 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Addresses or CIDR ranges allowed to scrape /actuator/prometheus; loopback only by default
+    @Value("${metrics.scrape.allowed-addresses:127.0.0.1,::1}")
+    private String[] scrapeAddresses;
+
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -37,6 +48,14 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/api/health").permitAll()
+                        // Plaid's webhook calls carry their own signature, checked by PlaidWebhookVerifier
+                        .requestMatchers(HttpMethod.POST, "/api/plaid/webhook").permitAll()
+                        // Probes; only health and prometheus are exposed (see management.*)
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // Not for the public: only the configured scrapers may read metrics
+                        .requestMatchers("/actuator/prometheus").access(fromScrapeAddresses())
+                        // Completion of a streamed response (exports); the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -44,6 +63,17 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Matches the connection's address; behind a proxy, list the proxy or scrape on a private network
+    private AuthorizationManager<RequestAuthorizationContext> fromScrapeAddresses() {
+        List<IpAddressMatcher> allowed = Arrays.stream(scrapeAddresses)
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                allowed.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,39 @@
+package com.anshdesai.backend.controller;
+
+import com.anshdesai.backend.payload.NetWorthInterval;
+import com.anshdesai.backend.payload.NetWorthSeries;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.BalanceHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/accounts")
+@RequiredArgsConstructor
+public class AccountController {
+
+    private final BalanceHistoryService balanceHistoryService;
+
+    // Net worth per day, week or month; defaults to monthly points over the last year
+    @GetMapping("/net-worth")
+    public ResponseEntity<NetWorthSeries> getNetWorth(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String interval) {
+        try {
+            return ResponseEntity.ok(balanceHistoryService.getNetWorth(principal.id(), from, to,
+                    NetWorthInterval.parse(interval)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
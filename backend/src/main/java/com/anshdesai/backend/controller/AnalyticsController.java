@@ -0,0 +1,32 @@
+package com.anshdesai.backend.controller;
+
+import com.anshdesai.backend.payload.SpendingSummary;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.SpendingRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final SpendingRollupService spendingRollupService;
+
+    // Totals per category, month and account. Dates are rounded down to whole months.
+    @GetMapping("/spending")
+    public ResponseEntity<SpendingSummary> getSpending(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(spendingRollupService.getSummary(principal.id(), from, to));
+    }
+}
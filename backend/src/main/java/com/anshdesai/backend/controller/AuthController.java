@@ -37,7 +37,7 @@ public class AuthController {
         
         userRepository.save(user);
         
-        String token = jwtUtils.generateToken(user.getEmail());
+        String token = jwtUtils.generateToken(user.getId(), user.getEmail());
         return ResponseEntity.ok(AuthResponse.builder().token(token).build());
     }
     
@@ -50,7 +50,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String token = jwtUtils.generateToken(user.getEmail());
+        String token = jwtUtils.generateToken(user.getId(), user.getEmail());
         return ResponseEntity.ok(AuthResponse.builder().token(token).build());
     }
 }
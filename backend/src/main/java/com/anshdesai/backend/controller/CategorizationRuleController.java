@@ -0,0 +1,108 @@
+package com.anshdesai.backend.controller;
+
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.CategorizationRuleView;
+import com.anshdesai.backend.payload.RecategorizationJob;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.CategorizationRuleService;
+import com.anshdesai.backend.service.RecategorizationService;
+import com.anshdesai.backend.service.UserCache;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/categories/rules")
+@RequiredArgsConstructor
+public class CategorizationRuleController {
+
+    private final CategorizationRuleService categorizationRuleService;
+    private final RecategorizationService recategorizationService;
+    private final UserCache userCache;
+
+    @GetMapping
+    public ResponseEntity<List<CategorizationRuleView>> getRules(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userCache.get(principal.id());
+
+        return ResponseEntity.ok(categorizationRuleService.getRules(user));
+    }
+
+    @PostMapping
+    public ResponseEntity<CategorizationRuleView> createRule(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestBody RuleRequest request) {
+        User user = userCache.get(principal.id());
+
+        try {
+            CategorizationRuleView created = categorizationRuleService.createRule(user, request.getKeyword(),
+                    request.getCategoryId(), request.getPriority(), request.getMatchType());
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            // Missing field, bad regex or someone else's category
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CategorizationRuleView> updateRule(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @PathVariable UUID id,
+            @RequestBody RuleRequest request) {
+        User user = userCache.get(principal.id());
+
+        try {
+            return categorizationRuleService.updateRule(user, id, request.getKeyword(),
+                            request.getCategoryId(), request.getPriority(), request.getMatchType())
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable UUID id) {
+        User user = userCache.get(principal.id());
+
+        return categorizationRuleService.deleteRule(user, id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/apply")
+    public ResponseEntity<RecategorizationJob> applyRules(@AuthenticationPrincipal AuthenticatedUser principal) {
+        // Runs in the background; poll GET /apply/{jobId} for progress
+        try {
+            return ResponseEntity.accepted().body(recategorizationService.enqueue(principal.id()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    @GetMapping("/apply/{jobId}")
+    public ResponseEntity<RecategorizationJob> getApplyJob(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable UUID jobId) {
+        return recategorizationService.getJob(principal.id(), jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Data
+    static class RuleRequest {
+        private String keyword;
+        private UUID categoryId;
+        // Higher runs first; defaults to 0
+        private Integer priority;
+        private CategorizationRule.MatchType matchType;
+    }
+}
@@ -1,17 +1,21 @@
 package com.anshdesai.backend.controller;
 
 import com.anshdesai.backend.model.Category;
-import com.anshdesai.backend.model.Transaction;
 import com.anshdesai.backend.model.User;
 import com.anshdesai.backend.repository.CategoryRepository;
-import com.anshdesai.backend.repository.TransactionRepository;
-import com.anshdesai.backend.repository.UserRepository;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.CategoryService;
+import com.anshdesai.backend.service.DataVersionService;
+import com.anshdesai.backend.service.UserCache;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID; // <--- Import UUID
@@ -22,29 +26,33 @@ import java.util.UUID; // <--- Import UUID
 public class CategoryController {
 
     private final CategoryRepository categoryRepository;
-    private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final CategoryService categoryService;
+    private final DataVersionService dataVersionService;
+    private final UserCache userCache;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<Category>> getAllCategories(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                           WebRequest request) {
+        // Unchanged since the client's copy: 304 without querying anything
+        String etag = dataVersionService.etag(principal.id());
+        if (request.checkNotModified(etag)) {
+            return revalidated(etag).build();
+        }
+
+        User user = userCache.get(principal.id());
 
         List<Category> categories = categoryRepository.findByUser(user);
-        return ResponseEntity.ok(categories);
+        return revalidated(etag).body(categories);
     }
 
     @PostMapping
     public ResponseEntity<Category> createCategory(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestBody CreateCategoryRequest request) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
 
-        // Check if category with same name already exists for this user
-        if (categoryRepository.findByNameAndUserId(request.getName(), user.getId()).isPresent()) {
+        // Check if category with same name already exists for this user (names are case-insensitive)
+        if (categoryRepository.findByUserIdAndNameIgnoreCase(user.getId(), request.getName()).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
@@ -56,18 +64,17 @@ public class CategoryController {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        dataVersionService.bump(user.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
     // FIXED: Changed Long -> UUID
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @PathVariable UUID id,
             @RequestBody UpdateCategoryRequest request) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
 
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -77,6 +84,13 @@ public class CategoryController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
+        // Renaming onto another category's name would break the per-user unique name
+        if (request.getName() != null && categoryRepository.findByUserIdAndNameIgnoreCase(user.getId(), request.getName())
+                .filter(other -> !other.getId().equals(id))
+                .isPresent()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
         // Update fields
         if (request.getName() != null) {
             category.setName(request.getName());
@@ -86,17 +100,16 @@ public class CategoryController {
         }
 
         Category updated = categoryRepository.save(category);
+        dataVersionService.bump(user.getId());
         return ResponseEntity.ok(updated);
     }
 
     // FIXED: Changed Long -> UUID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @PathVariable UUID id) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
 
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -106,22 +119,19 @@ public class CategoryController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        // Set transactions' category to null before deleting to avoid FK errors
-        // Note: This is inefficient for large datasets but works for MVP.
-        // Better approach: Use a custom repository method "updateCategoryToNull(categoryId)"
-        List<Transaction> transactions = transactionRepository.findAll().stream()
-                .filter(txn -> txn.getCategory() != null && txn.getCategory().getId().equals(id))
-                .toList();
-
-        for (Transaction transaction : transactions) {
-            transaction.setCategory(null);
-            transactionRepository.save(transaction);
-        }
-
-        categoryRepository.delete(category);
+        categoryService.deleteCategory(category);
+        dataVersionService.bump(user.getId());
         return ResponseEntity.noContent().build();
     }
 
+    // Same caching headers as the transaction listings (see TransactionsController)
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+
     @Data
     static class CreateCategoryRequest {
         private String name;
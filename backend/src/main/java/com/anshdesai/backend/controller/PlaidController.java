@@ -1,16 +1,28 @@
 package com.anshdesai.backend.controller;
 
+import com.anshdesai.backend.model.PlaidItem;
 import com.anshdesai.backend.model.User;
-import com.anshdesai.backend.repository.UserRepository;
+import com.anshdesai.backend.payload.PlaidItemStatus;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.BackfillService;
 import com.anshdesai.backend.service.PlaidService;
+import com.anshdesai.backend.service.PlaidWebhookService;
+import com.anshdesai.backend.service.UserCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,16 +31,14 @@ import java.util.Map;
 public class PlaidController {
     
     private final PlaidService plaidService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final PlaidItemRepository plaidItemRepository;
+    private final PlaidWebhookService plaidWebhookService;
+    private final BackfillService backfillService;
     
     @PostMapping("/link-token")
-    public ResponseEntity<Map<String, String>> createLinkToken(Authentication authentication) {
-        // Get user email from authentication
-        String email = authentication.getName();
-        
-        // Load user from database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<Map<String, String>> createLinkToken(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userCache.get(principal.id());
         
         // Create link token
         String linkToken = plaidService.createLinkToken(user);
@@ -38,14 +48,9 @@ public class PlaidController {
     
     @PostMapping("/public-token")
     public ResponseEntity<Void> exchangePublicToken(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestBody Map<String, String> requestBody) {
-        // Get user email from authentication
-        String email = authentication.getName();
-        
-        // Load user from database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
         
         // Get public_token from request body
         String publicToken = requestBody.get("public_token");
@@ -53,10 +58,47 @@ public class PlaidController {
             throw new RuntimeException("public_token is required");
         }
         
-        // Exchange public token
-        plaidService.exchangePublicToken(user, publicToken);
+        // Exchange public token; the institution name is only displayed
+        PlaidItem item = plaidService.exchangePublicToken(user, publicToken, requestBody.get("institution_name"));
+
+        // Older history is imported in the background
+        backfillService.start(item.getId());
         
         return ResponseEntity.ok().build();
     }
-}
 
+    @GetMapping("/items")
+    public ResponseEntity<List<PlaidItemStatus>> getItems(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userCache.get(principal.id());
+
+        // Report how far behind each linked item is
+        LocalDateTime now = LocalDateTime.now();
+        List<PlaidItemStatus> items = plaidItemRepository.findByUser(user).stream()
+                .map(item -> PlaidItemStatus.builder()
+                        .id(item.getId())
+                        .institutionName(item.getInstitutionName())
+                        .status(item.getStatus())
+                        .lastSyncedAt(item.getLastSyncedAt())
+                        .lagSeconds(item.getLastSyncedAt() != null
+                                ? Duration.between(item.getLastSyncedAt(), now).getSeconds()
+                                : null)
+                        .nextSyncAt(item.getNextSyncAt())
+                        .syncFailures(item.getSyncFailures())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(items);
+    }
+
+    // Called by Plaid, not users: authenticated by the signed Plaid-Verification header instead of a JWT
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> receiveWebhook(
+            @RequestHeader(name = "Plaid-Verification", required = false) String verification,
+            @RequestBody byte[] body) {
+        return switch (plaidWebhookService.receive(verification, body)) {
+            case REJECTED -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            case BUSY -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            case QUEUED, IGNORED, DUPLICATE -> ResponseEntity.ok().build();
+        };
+    }
+}
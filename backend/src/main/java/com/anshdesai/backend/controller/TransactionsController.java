@@ -1,79 +1,151 @@
 package com.anshdesai.backend.controller;
 
-import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.SyncJob;
 import com.anshdesai.backend.model.User;
-import com.anshdesai.backend.repository.TransactionRepository;
-import com.anshdesai.backend.repository.UserRepository;
+import com.anshdesai.backend.payload.TransactionExportFormat;
+import com.anshdesai.backend.payload.TransactionFilter;
+import com.anshdesai.backend.payload.TransactionPage;
+import com.anshdesai.backend.payload.TransactionView;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import com.anshdesai.backend.service.DataVersionService;
+import com.anshdesai.backend.service.SyncJobService;
+import com.anshdesai.backend.service.TransactionExportService;
 import com.anshdesai.backend.service.TransactionService;
-import com.anshdesai.backend.service.TransactionSyncService;
+import com.anshdesai.backend.service.UserCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
 public class TransactionsController {
 
-    private final TransactionSyncService transactionSyncService;
+    private final SyncJobService syncJobService;
     private final TransactionService transactionService;
-    private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final TransactionExportService transactionExportService;
+    private final DataVersionService dataVersionService;
+    private final UserCache userCache;
 
-    @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> syncTransactions(Authentication authentication) {
-        // Get user email from authentication
-        String email = authentication.getName();
-
-        // Load user from database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private static final int MAX_PAGE_SIZE = 200;
 
-        // Sync transactions
-        int count = transactionSyncService.syncTransactions(user);
+    @PostMapping("/sync")
+    public ResponseEntity<SyncJob> syncTransactions(@AuthenticationPrincipal AuthenticatedUser principal) {
+        // Queue the sync (or join the one already running) and return right away
+        try {
+            SyncJob job = syncJobService.enqueue(principal.id());
+            return ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "status", "SUCCESS",
-                "count", count
-        ));
+    @GetMapping("/sync/{jobId}")
+    public ResponseEntity<SyncJob> getSyncJob(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable UUID jobId) {
+        return syncJobService.getJob(principal.id(), jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getTransactions(Authentication authentication) {
-        // Get user email from authentication
-        String email = authentication.getName();
+    public ResponseEntity<List<TransactionView>> getTransactions(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                 WebRequest request) {
+        // Unchanged since the client's copy: 304 without querying anything
+        String etag = dataVersionService.etag(principal.id());
+        if (request.checkNotModified(etag)) {
+            return revalidated(etag).build();
+        }
 
-        // Load user from database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
 
         // Get transactions for user
-        List<Transaction> transactions = transactionRepository.findByUserIdOrderByDateDesc(user.getId());
+        List<TransactionView> transactions = transactionService.getTransactions(user);
+
+        return revalidated(etag).body(transactions);
+    }
 
-        return ResponseEntity.ok(transactions);
+    @GetMapping("/page")
+    public ResponseEntity<TransactionPage<TransactionView>> getTransactionPage(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            TransactionFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = dataVersionService.etag(principal.id());
+        if (request.checkNotModified(etag)) {
+            return revalidated(etag).build();
+        }
+
+        User user = userCache.get(principal.id());
+
+        try {
+            return revalidated(etag).body(transactionService.getTransactionPage(user, filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Full history as NDJSON or CSV, streamed from the database to the client a row at a time.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        TransactionExportFormat exportFormat;
+        try {
+            exportFormat = TransactionExportFormat.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        UUID userId = principal.id();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.getFileExtension())
+                        .build()
+                        .toString())
+                .body(out -> transactionExportService.export(userId, exportFormat, out));
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Transaction> updateTransaction(
-            Authentication authentication,
+    public ResponseEntity<TransactionView> updateTransaction(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @PathVariable UUID id,
             @RequestBody TransactionService.UpdateTransactionRequest request) {
-        // Get user email from authentication
-        String email = authentication.getName();
-
-        // Load user from database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(principal.id());
 
         // Update transaction using service
-        Transaction updated = transactionService.updateTransaction(user, id, request);
+        TransactionView updated = transactionService.updateTransaction(user, id, request);
 
         return ResponseEntity.ok(updated);
     }
-}
 
+    // Clients keep the body but must check back (If-None-Match) before every reuse.
+    // Also sent on 304s, or Spring Security's no-store default would evict their copy.
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+}
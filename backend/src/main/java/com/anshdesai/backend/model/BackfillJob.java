@@ -0,0 +1,80 @@
+package com.anshdesai.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a newly linked item's history import, see BackfillService.
+ */
+@Entity
+@Table(name = "backfill_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackfillJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "plaid_item_id", nullable = false, unique = true)
+    private UUID plaidItemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    // Oldest day to import
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Checkpoint: newest day of the window being imported, and how far into it we are
+    @Column(name = "window_end", nullable = false)
+    private LocalDate windowEnd;
+
+    @Column(name = "page_offset", nullable = false)
+    private int pageOffset;
+
+    @Column(name = "transactions_added", nullable = false)
+    private int transactionsAdded;
+
+    // Failures in a row; reset by every imported page
+    @Column(nullable = false)
+    private int attempts;
+
+    // When QUEUED, when to run next; when RUNNING, when the runner's claim lapses unless renewed
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
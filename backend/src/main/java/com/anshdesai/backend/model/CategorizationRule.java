@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.dialect.type.PostgreSQLEnumJdbcType;
 import com.fasterxml.jackson.annotation.JsonIgnore; // <--- Safety Import
 
 import java.util.UUID; // <--- UUID Import
@@ -37,7 +39,9 @@ public class CategorizationRule {
     @Column(nullable = false)
     private Integer priority;
 
+    // match_type is the Postgres enum match_type_enum, which won't accept a varchar bind
     @Enumerated(EnumType.STRING)
+    @JdbcType(PostgreSQLEnumJdbcType.class)
     @Column(name = "match_type", nullable = false)
     private MatchType matchType;
 
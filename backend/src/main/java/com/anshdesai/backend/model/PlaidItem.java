@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore; // <--- IMPORT THIS
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,9 +37,27 @@ public class PlaidItem {
     @Column(name = "institution_name")
     private String institutionName;
 
+    // Plaid's institution_id; keys the per-bank bulkhead and circuit breaker (see PlaidFetchExecutor)
+    @Column(name = "institution_id")
+    private String institutionId;
+
     @Column(nullable = false)
     private String status;
 
+    // Last next_cursor returned by /transactions/sync (null until the first sync)
+    @Column(name = "transactions_cursor", columnDefinition = "TEXT")
+    private String transactionsCursor;
+
+    // Background sync bookkeeping (see SyncScheduler)
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    @Column(name = "next_sync_at")
+    private LocalDateTime nextSyncAt;
+
+    @Column(name = "sync_failures", nullable = false)
+    private int syncFailures;
+
     @OneToMany(mappedBy = "plaidItem", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Account> accounts;
 }
\ No newline at end of file
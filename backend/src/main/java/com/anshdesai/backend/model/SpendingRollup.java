@@ -0,0 +1,47 @@
+package com.anshdesai.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated monthly spending bucket, maintained by SpendingRollupService.
+ */
+@Entity
+@Table(name = "spending_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // First day of the month
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    // Null for uncategorized spending
+    @Column(name = "category_id")
+    private UUID categoryId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "transaction_count", nullable = false)
+    private int transactionCount;
+}
@@ -30,6 +30,10 @@ public class User {
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Only ever changed by UserRepository.incrementDataVersion, never through the entity
+    @Column(name = "data_version", nullable = false, insertable = false, updatable = false)
+    private long dataVersion;
     
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlaidItem> plaidItems;
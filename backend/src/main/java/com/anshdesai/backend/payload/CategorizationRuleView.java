@@ -0,0 +1,24 @@
+package com.anshdesai.backend.payload;
+
+import com.anshdesai.backend.model.CategorizationRule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorizationRuleView {
+    private UUID id;
+    private String keyword;
+    private UUID categoryId;
+    private Integer priority;
+    private CategorizationRule.MatchType matchType;
+
+    public static CategorizationRuleView from(CategorizationRule rule) {
+        return new CategorizationRuleView(rule.getId(), rule.getKeyword(), rule.getCategory().getId(),
+                rule.getPriority(), rule.getMatchType());
+    }
+}
@@ -0,0 +1,47 @@
+package com.anshdesai.backend.payload;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Bucket sizes for GET /api/accounts/net-worth. Buckets start where Postgres' date_trunc
+ * puts them: the day itself, the Monday of the week, the first of the month.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum NetWorthInterval {
+
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS);
+
+    // date_trunc field name
+    private final String unit;
+    private final ChronoUnit step;
+
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        return bucketStart.plus(1, step);
+    }
+
+    // Buckets covering from..to, both inclusive
+    public long bucketsBetween(LocalDate from, LocalDate to) {
+        return step.between(bucketStart(from), bucketStart(to)) + 1;
+    }
+
+    public static NetWorthInterval parse(String interval) {
+        return valueOf(interval.trim().toUpperCase(Locale.ROOT));
+    }
+}
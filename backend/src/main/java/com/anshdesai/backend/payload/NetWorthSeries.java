@@ -0,0 +1,38 @@
+package com.anshdesai.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Net worth over time, one point per bucket, read from account_balance_snapshots.
+ * Each point holds the balances as of the end of its bucket (or of the range, for the last one);
+ * an account without a snapshot in a bucket counts with its last earlier balance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NetWorthSeries {
+    private NetWorthInterval interval;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        // First day of the bucket
+        private LocalDate date;
+        private BigDecimal assets;
+        // Credit and loan balances, as a positive amount owed
+        private BigDecimal liabilities;
+        private BigDecimal netWorth;
+    }
+}
@@ -0,0 +1,24 @@
+package com.anshdesai.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlaidItemStatus {
+    private UUID id;
+    private String institutionName;
+    private String status;
+    private LocalDateTime lastSyncedAt;
+    // Seconds since the last successful sync, null if the item has never synced
+    private Long lagSeconds;
+    private LocalDateTime nextSyncAt;
+    private int syncFailures;
+}
@@ -0,0 +1,59 @@
+package com.anshdesai.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Spending (positive amounts) over a range of whole months, read from spending_rollup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingSummary {
+    // First day of the first and last month covered; null when that end is open
+    private LocalDate fromMonth;
+    private LocalDate toMonth;
+    private BigDecimal total;
+    private List<CategoryTotal> byCategory;
+    private List<MonthTotal> byMonth;
+    private List<AccountTotal> byAccount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotal {
+        // Null for spending without a user category, whatever Plaid's category for it was
+        private UUID categoryId;
+        private String name;
+        private String colorHex;
+        private BigDecimal total;
+        private long transactionCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthTotal {
+        private LocalDate month;
+        private BigDecimal total;
+        private long transactionCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccountTotal {
+        private UUID accountId;
+        private String name;
+        private BigDecimal total;
+        private long transactionCount;
+    }
+}
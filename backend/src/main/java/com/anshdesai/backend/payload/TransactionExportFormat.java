@@ -0,0 +1,27 @@
+package com.anshdesai.backend.payload;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formats for GET /api/transactions/export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransactionExportFormat {
+
+    // One JSON object per line
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    public static TransactionExportFormat parse(String format) {
+        return valueOf(format.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,35 @@
+package com.anshdesai.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Optional server-side filters for GET /api/transactions/page. Unset fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionFilter {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private UUID accountId;
+    private UUID categoryId;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    // Case-insensitive substring match on description
+    private String q;
+}
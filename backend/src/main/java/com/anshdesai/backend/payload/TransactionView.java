@@ -0,0 +1,85 @@
+package com.anshdesai.backend.payload;
+
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read model for transaction listings. Carries just the category and account fields the
+ * frontend shows, so serializing a list never touches lazy associations.
+ */
+@Data
+@NoArgsConstructor
+public class TransactionView {
+
+    private UUID id;
+    private String plaidTransactionId;
+    private BigDecimal amount;
+    private LocalDate date;
+    private String description;
+    private String plaidCategory;
+    private String plaidDetailedCategory;
+    private CategoryRef category;
+    private AccountRef account;
+
+    // Used by JPQL constructor expressions (see TransactionRepository)
+    public TransactionView(UUID id, String plaidTransactionId, BigDecimal amount, LocalDate date,
+                           String description, String plaidCategory, String plaidDetailedCategory,
+                           UUID categoryId, String categoryName, String categoryColorHex,
+                           UUID accountId, String accountName) {
+        this.id = id;
+        this.plaidTransactionId = plaidTransactionId;
+        this.amount = amount;
+        this.date = date;
+        this.description = description;
+        this.plaidCategory = plaidCategory;
+        this.plaidDetailedCategory = plaidDetailedCategory;
+        this.category = categoryId != null ? new CategoryRef(categoryId, categoryName, categoryColorHex) : null;
+        this.account = new AccountRef(accountId, accountName);
+    }
+
+    /**
+     * Build from an entity whose category and account are already loaded.
+     */
+    public static TransactionView from(Transaction transaction) {
+        Category category = transaction.getCategory();
+        Account account = transaction.getAccount();
+        return new TransactionView(
+                transaction.getId(),
+                transaction.getPlaidTransactionId(),
+                transaction.getAmount(),
+                transaction.getDate(),
+                transaction.getDescription(),
+                transaction.getPlaidCategory(),
+                transaction.getPlaidDetailedCategory(),
+                category != null ? category.getId() : null,
+                category != null ? category.getName() : null,
+                category != null ? category.getColorHex() : null,
+                account.getId(),
+                account.getName());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryRef {
+        private UUID id;
+        private String name;
+        private String colorHex;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccountRef {
+        private UUID id;
+        private String name;
+    }
+}
@@ -0,0 +1,65 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.model.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, AccountBalanceSnapshot.Key> {
+
+    // Copy the item's current balances into today's snapshot, replacing one an earlier sync wrote.
+    // Flush first so balances updated by this sync are what gets copied.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO account_balance_snapshots (account_id, user_id, snapshot_date, balance) " +
+                   "SELECT a.id, :userId, :date, a.balance FROM accounts a WHERE a.plaid_item_id = :plaidItemId " +
+                   "ON CONFLICT (account_id, snapshot_date) DO UPDATE SET balance = EXCLUDED.balance",
+           nativeQuery = true)
+    int upsertFromAccounts(@Param("userId") UUID userId,
+                           @Param("plaidItemId") UUID plaidItemId,
+                           @Param("date") LocalDate date);
+
+    // Last balance of each account in each bucket (day, week or month) of the range
+    @Query(value = "SELECT DISTINCT ON (s.account_id, bucket) " +
+                   "CAST(date_trunc(:unit, s.snapshot_date) AS date) AS bucket, s.account_id AS accountId, " +
+                   "a.type AS accountType, s.balance AS balance " +
+                   "FROM account_balance_snapshots s JOIN accounts a ON a.id = s.account_id " +
+                   "WHERE s.user_id = :userId AND s.snapshot_date >= :fromDate AND s.snapshot_date <= :toDate " +
+                   "ORDER BY s.account_id, bucket, s.snapshot_date DESC",
+           nativeQuery = true)
+    List<BucketBalance> findLastBalancePerBucket(@Param("userId") UUID userId,
+                                                 @Param("unit") String unit,
+                                                 @Param("fromDate") LocalDate fromDate,
+                                                 @Param("toDate") LocalDate toDate);
+
+    // Each account's last balance before the range, which carries into it; one index probe per account
+    @Query(value = "SELECT a.id AS accountId, a.type AS accountType, last.balance AS balance " +
+                   "FROM accounts a JOIN plaid_items p ON p.id = a.plaid_item_id " +
+                   "CROSS JOIN LATERAL (SELECT s.balance FROM account_balance_snapshots s " +
+                   "WHERE s.account_id = a.id AND s.snapshot_date < :fromDate " +
+                   "ORDER BY s.snapshot_date DESC LIMIT 1) last " +
+                   "WHERE p.user_id = :userId",
+           nativeQuery = true)
+    List<AccountBalance> findLastBalanceBefore(@Param("userId") UUID userId,
+                                               @Param("fromDate") LocalDate fromDate);
+
+    @Query(value = "SELECT ensure_balance_snapshot_partition(:month)", nativeQuery = true)
+    String ensurePartition(@Param("month") LocalDate month);
+
+    interface AccountBalance {
+        UUID getAccountId();
+        String getAccountType();
+        BigDecimal getBalance();
+    }
+
+    interface BucketBalance extends AccountBalance {
+        LocalDate getBucket();
+    }
+}
@@ -3,15 +3,57 @@ package com.anshdesai.backend.repository;
 import com.anshdesai.backend.model.Account;
 import com.anshdesai.backend.model.PlaidItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findByPlaidItem(PlaidItem plaidItem);
-    Optional<Account> findByPlaidAccountId(String plaidAccountId);
+
+    @Query("SELECT a.id FROM Account a WHERE a.plaidItem.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Reconcile an item's accounts in one statement, keyed on plaid_account_id: new accounts are
+     * inserted, changed balances updated, and unchanged rows not written at all. A null balance keeps
+     * the stored one (0 for a new account); name and type are only set on insert.
+     * Returns the id of every account passed in, and of the item's stored accounts that were not, so
+     * transactions of an account missing from Plaid's account list still find it. The arrays are
+     * parallel and must not repeat an id.
+     */
+    @Query(value = "WITH input AS (" +
+                   "SELECT * FROM unnest(CAST(:plaidAccountIds AS text[]), CAST(:names AS text[]), " +
+                   "CAST(:types AS text[]), CAST(:balances AS numeric[])) AS i(plaid_account_id, name, type, balance)), " +
+                   "upserted AS (" +
+                   "INSERT INTO accounts (plaid_item_id, plaid_account_id, name, type, balance) " +
+                   "SELECT :plaidItemId, i.plaid_account_id, i.name, i.type, COALESCE(i.balance, a.balance, 0) " +
+                   "FROM input i LEFT JOIN accounts a ON a.plaid_account_id = i.plaid_account_id " +
+                   "ON CONFLICT (plaid_account_id) DO UPDATE SET balance = EXCLUDED.balance " +
+                   "WHERE accounts.balance IS DISTINCT FROM EXCLUDED.balance " +
+                   "RETURNING id, plaid_account_id) " +
+                   "SELECT u.id AS id, u.plaid_account_id AS plaidAccountId FROM upserted u " +
+                   // Rows left alone are not RETURNed; they are read from the statement's snapshot instead
+                   "UNION ALL " +
+                   "SELECT a.id, a.plaid_account_id FROM accounts a JOIN input i ON i.plaid_account_id = a.plaid_account_id " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM upserted u WHERE u.plaid_account_id = a.plaid_account_id) " +
+                   "UNION ALL " +
+                   "SELECT a.id, a.plaid_account_id FROM accounts a WHERE a.plaid_item_id = :plaidItemId " +
+                   "AND NOT EXISTS (SELECT 1 FROM input i WHERE i.plaid_account_id = a.plaid_account_id)",
+           nativeQuery = true)
+    List<AccountId> upsertForItem(@Param("plaidItemId") UUID plaidItemId,
+                                  @Param("plaidAccountIds") String[] plaidAccountIds,
+                                  @Param("names") String[] names,
+                                  @Param("types") String[] types,
+                                  @Param("balances") BigDecimal[] balances);
+
+    interface AccountId {
+        UUID getId();
+        String getPlaidAccountId();
+    }
 }
 
@@ -0,0 +1,39 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.model.BackfillJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BackfillJobRepository extends JpaRepository<BackfillJob, UUID> {
+    Optional<BackfillJob> findByPlaidItemId(UUID plaidItemId);
+
+    // RUNNING is included: a job whose runner died resumes from its checkpoint once the claim lapses
+    List<BackfillJob> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(Collection<BackfillJob.Status> statuses,
+                                                                                      LocalDateTime now,
+                                                                                      Pageable pageable);
+
+    /**
+     * Claim a due job for one runner until leaseUntil. Returns 0 when another runner, in this
+     * instance or another, claimed it first: the row lock serializes concurrent claims, and the
+     * loser re-reads next_attempt_at already moved past now.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BackfillJob j SET j.status = com.anshdesai.backend.model.BackfillJob.Status.RUNNING, " +
+           "j.nextAttemptAt = :leaseUntil, j.version = j.version + 1 " +
+           "WHERE j.id = :id AND j.nextAttemptAt <= :now AND j.status IN " +
+           "(com.anshdesai.backend.model.BackfillJob.Status.QUEUED, com.anshdesai.backend.model.BackfillJob.Status.RUNNING)")
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -4,7 +4,12 @@ import com.anshdesai.backend.model.CategorizationRule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
-public interface CategorizationRuleRepository extends JpaRepository<CategorizationRule, Long> {
+public interface CategorizationRuleRepository extends JpaRepository<CategorizationRule, UUID> {
+    List<CategorizationRule> findByUserId(UUID userId);
+    Optional<CategorizationRule> findByIdAndUserId(UUID id, UUID userId);
 }
-
@@ -3,6 +3,9 @@ package com.anshdesai.backend.repository;
 import com.anshdesai.backend.model.Category;
 import com.anshdesai.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +14,16 @@ import java.util.UUID;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
-    Optional<Category> findByNameAndUserId(String name, UUID userId);
+    // Names are unique per user ignoring case (uq_categories_user_name)
+    Optional<Category> findByUserIdAndNameIgnoreCase(UUID userId, String name);
     List<Category> findByUser(User user);
-}
 
+    // Creates whichever names the user doesn't have yet, in one statement; existing ones are left alone
+    @Modifying
+    @Query(value = "INSERT INTO categories (user_id, name, color_hex) " +
+                   "SELECT :userId, n.name, n.color_hex " +
+                   "FROM unnest(CAST(:names AS text[]), CAST(:colors AS text[])) AS n(name, color_hex) " +
+                   "ON CONFLICT (user_id, lower(name)) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId, @Param("names") String[] names, @Param("colors") String[] colors);
+}
@@ -2,14 +2,69 @@ package com.anshdesai.backend.repository;
 
 import com.anshdesai.backend.model.PlaidItem;
 import com.anshdesai.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PlaidItemRepository extends JpaRepository<PlaidItem, UUID> {
     List<PlaidItem> findByUser(User user);
-}
 
+    @Query("SELECT p FROM PlaidItem p JOIN FETCH p.user WHERE p.id = :id")
+    Optional<PlaidItem> findWithUserById(@Param("id") UUID id);
+
+    // ACTIVE items that are stale and not backing off, least recently synced first
+    @Query("SELECT p.id AS id, p.user.id AS userId, p.syncFailures AS syncFailures FROM PlaidItem p " +
+           "WHERE p.status = 'ACTIVE' " +
+           "AND (p.nextSyncAt IS NULL OR p.nextSyncAt <= :now) " +
+           "AND (p.lastSyncedAt IS NULL OR p.lastSyncedAt <= :staleBefore) " +
+           "ORDER BY p.lastSyncedAt ASC NULLS FIRST")
+    List<DueItem> findDueForSync(@Param("now") LocalDateTime now,
+                                 @Param("staleBefore") LocalDateTime staleBefore,
+                                 Pageable pageable);
+
+    // Serializes writers of one item's transactions (sync and backfill) for the rest of the transaction
+    @Query(value = "SELECT id FROM plaid_items WHERE id = :id FOR UPDATE", nativeQuery = true)
+    UUID lockById(@Param("id") UUID id);
+
+    // Webhooks name items by Plaid's item_id
+    @Query("SELECT p.id AS id, p.user.id AS userId, p.syncFailures AS syncFailures FROM PlaidItem p " +
+           "WHERE p.itemId = :itemId AND p.status = 'ACTIVE'")
+    List<DueItem> findActiveByItemId(@Param("itemId") String itemId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PlaidItem p SET p.syncFailures = :syncFailures, p.nextSyncAt = :nextSyncAt WHERE p.id = :id")
+    void updateSyncSchedule(@Param("id") UUID id,
+                            @Param("syncFailures") int syncFailures,
+                            @Param("nextSyncAt") LocalDateTime nextSyncAt);
+
+    // Only once a sync has paged to the end: the cursor must not move while Plaid's pagination is under way
+    @Transactional
+    @Modifying
+    @Query("UPDATE PlaidItem p SET p.transactionsCursor = :cursor, p.lastSyncedAt = :syncedAt WHERE p.id = :id")
+    void markSynced(@Param("id") UUID id,
+                    @Param("cursor") String cursor,
+                    @Param("syncedAt") LocalDateTime syncedAt);
+
+    // Fills in items linked before institution_id was stored, see PlaidService.institutionKey
+    @Transactional
+    @Modifying
+    @Query("UPDATE PlaidItem p SET p.institutionId = :institutionId WHERE p.id = :id")
+    void updateInstitutionId(@Param("id") UUID id, @Param("institutionId") String institutionId);
+
+    interface DueItem {
+        UUID getId();
+        UUID getUserId();
+        int getSyncFailures();
+    }
+}
@@ -0,0 +1,95 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.model.SpendingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SpendingRollupRepository extends JpaRepository<SpendingRollup, UUID> {
+
+    // Serializes rebuilds of one user's rollup until the transaction ends. An advisory lock rather
+    // than FOR UPDATE on users, which would also block inserts whose foreign keys point at the user
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtext('spending_rollup'), " +
+                   "hashtext(CAST(:userId AS text)))) AS locked", nativeQuery = true)
+    long lockUser(@Param("userId") UUID userId);
+
+    // Flush first so the rebuild that follows sees pending transaction changes
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM spending_rollup WHERE user_id = :userId AND month IN (:months)", nativeQuery = true)
+    void deleteMonths(@Param("userId") UUID userId, @Param("months") Collection<LocalDate> months);
+
+    // Rebuild the given months from transactions; the date range lets the planner use the date index
+    @Modifying
+    @Query(value = "INSERT INTO spending_rollup (user_id, month, account_id, category_id, total, transaction_count) " +
+                   "SELECT p.user_id, date_trunc('month', t.date)::date, t.account_id, t.category_id, SUM(t.amount), COUNT(*) " +
+                   "FROM transactions t " +
+                   "JOIN accounts a ON a.id = t.account_id " +
+                   "JOIN plaid_items p ON p.id = a.plaid_item_id " +
+                   "WHERE p.user_id = :userId AND t.amount > 0 " +
+                   "AND t.date >= :fromDate AND t.date < :toDate " +
+                   "AND date_trunc('month', t.date)::date IN (:months) " +
+                   "GROUP BY p.user_id, date_trunc('month', t.date), t.account_id, t.category_id",
+           nativeQuery = true)
+    void insertMonths(@Param("userId") UUID userId,
+                      @Param("months") Collection<LocalDate> months,
+                      @Param("fromDate") LocalDate fromDate,
+                      @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT r.categoryId AS categoryId, c.name AS name, c.colorHex AS colorHex, " +
+           "SUM(r.total) AS total, SUM(r.transactionCount) AS transactionCount " +
+           "FROM SpendingRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+           "WHERE r.userId = :userId AND r.month >= :fromMonth AND r.month <= :toMonth " +
+           "GROUP BY r.categoryId, c.name, c.colorHex " +
+           "ORDER BY SUM(r.total) DESC")
+    List<CategoryTotal> sumByCategory(@Param("userId") UUID userId,
+                                      @Param("fromMonth") LocalDate fromMonth,
+                                      @Param("toMonth") LocalDate toMonth);
+
+    @Query("SELECT r.month AS month, SUM(r.total) AS total, SUM(r.transactionCount) AS transactionCount " +
+           "FROM SpendingRollup r " +
+           "WHERE r.userId = :userId AND r.month >= :fromMonth AND r.month <= :toMonth " +
+           "GROUP BY r.month " +
+           "ORDER BY r.month")
+    List<MonthTotal> sumByMonth(@Param("userId") UUID userId,
+                                @Param("fromMonth") LocalDate fromMonth,
+                                @Param("toMonth") LocalDate toMonth);
+
+    @Query("SELECT r.accountId AS accountId, a.name AS name, SUM(r.total) AS total, SUM(r.transactionCount) AS transactionCount " +
+           "FROM SpendingRollup r JOIN Account a ON a.id = r.accountId " +
+           "WHERE r.userId = :userId AND r.month >= :fromMonth AND r.month <= :toMonth " +
+           "GROUP BY r.accountId, a.name " +
+           "ORDER BY SUM(r.total) DESC")
+    List<AccountTotal> sumByAccount(@Param("userId") UUID userId,
+                                    @Param("fromMonth") LocalDate fromMonth,
+                                    @Param("toMonth") LocalDate toMonth);
+
+    interface CategoryTotal {
+        UUID getCategoryId();
+        String getName();
+        String getColorHex();
+        BigDecimal getTotal();
+        Long getTransactionCount();
+    }
+
+    interface MonthTotal {
+        LocalDate getMonth();
+        BigDecimal getTotal();
+        Long getTransactionCount();
+    }
+
+    interface AccountTotal {
+        UUID getAccountId();
+        String getName();
+        BigDecimal getTotal();
+        Long getTransactionCount();
+    }
+}
@@ -0,0 +1,16 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.model.SyncJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJob, UUID> {
+    Optional<SyncJob> findByIdAndUserId(UUID id, UUID userId);
+    List<SyncJob> findByStatusInOrderByCreatedAt(Collection<SyncJob.Status> statuses);
+}
@@ -1,25 +1,97 @@
 package com.anshdesai.backend.repository;
 
+import com.anshdesai.backend.model.Category;
 import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.payload.TransactionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
     Optional<Transaction> findByPlaidTransactionId(String plaidTransactionId);
-    
-    @Query("SELECT t FROM Transaction t " +
+
+    // Single round trip dedup check for a whole page of Plaid transactions
+    @Query("SELECT t.plaidTransactionId FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    Set<String> findExistingPlaidTransactionIds(@Param("plaidTransactionIds") Collection<String> plaidTransactionIds);
+
+    List<Transaction> findByPlaidTransactionIdIn(Collection<String> plaidTransactionIds);
+
+    @Query("SELECT DISTINCT t.date FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    List<LocalDate> findDatesByPlaidTransactionIds(@Param("plaidTransactionIds") Collection<String> plaidTransactionIds);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    int deleteByPlaidTransactionIds(@Param("plaidTransactionIds") Collection<String> plaidTransactionIds);
+
+    // Single set-based update; cost follows the category's rows, not the table size
+    @Modifying
+    @Query("UPDATE Transaction t SET t.category = null WHERE t.category.id = :categoryId")
+    int detachCategory(@Param("categoryId") UUID categoryId);
+
+    @Query("SELECT COUNT(t) FROM Transaction t JOIN t.account a JOIN a.plaidItem p WHERE p.user.id = :userId")
+    long countByUserId(@Param("userId") UUID userId);
+
+    // Keyset chunk over one account's transactions by id, just the columns rule matching needs
+    @Query("SELECT t.id AS id, t.description AS description, t.date AS date, c.id AS categoryId " +
+           "FROM Transaction t " +
+           "LEFT JOIN t.category c " +
+           "WHERE t.account.id = :accountId AND t.id > :afterId " +
+           "ORDER BY t.id")
+    List<CategorizationCandidate> findCategorizationChunk(@Param("accountId") UUID accountId,
+                                                          @Param("afterId") UUID afterId,
+                                                          Limit limit);
+
+    @Modifying
+    @Query("UPDATE Transaction t SET t.category = :category WHERE t.id IN :ids")
+    int updateCategory(@Param("ids") Collection<UUID> ids, @Param("category") Category category);
+
+    // Listing read path: category and account names come back in the same row, no lazy loads
+    @Query("SELECT new com.anshdesai.backend.payload.TransactionView(" +
+           "t.id, t.plaidTransactionId, t.amount, t.date, t.description, t.plaidCategory, t.plaidDetailedCategory, " +
+           "c.id, c.name, c.colorHex, a.id, a.name) " +
+           "FROM Transaction t " +
+           "JOIN t.account a " +
+           "JOIN a.plaidItem p " +
+           "LEFT JOIN t.category c " +
+           "WHERE p.user.id = :userId " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findViewsByUserId(@Param("userId") UUID userId);
+
+    // Same rows for exports, pulled through a server-side cursor a fetch at a time. Views are not
+    // managed entities, so nothing piles up in the persistence context. Needs an open transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.anshdesai.backend.payload.TransactionView(" +
+           "t.id, t.plaidTransactionId, t.amount, t.date, t.description, t.plaidCategory, t.plaidDetailedCategory, " +
+           "c.id, c.name, c.colorHex, a.id, a.name) " +
+           "FROM Transaction t " +
            "JOIN t.account a " +
            "JOIN a.plaidItem p " +
-           "JOIN p.user u " +
-           "WHERE u.id = :userId " +
-           "ORDER BY t.date DESC")
-    List<Transaction> findByUserIdOrderByDateDesc(@Param("userId") UUID userId);
+           "LEFT JOIN t.category c " +
+           "WHERE p.user.id = :userId " +
+           "ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionView> streamViewsByUserId(@Param("userId") UUID userId);
+
+    // A record rather than an interface projection: no proxy per row on 100k-row walks
+    record CategorizationCandidate(UUID id, String description, LocalDate date, UUID categoryId) {
+    }
 }
 
@@ -0,0 +1,67 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.payload.TransactionFilter;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Criteria building blocks for the paginated transaction listing.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> belongsToUser(UUID userId) {
+        return (root, query, cb) -> cb.equal(
+                root.join("account").join("plaidItem").get("user").get("id"), userId);
+    }
+
+    public static Specification<Transaction> matches(TransactionFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.getTo()));
+            }
+            if (filter.getAccountId() != null) {
+                predicates.add(cb.equal(root.get("account").get("id"), filter.getAccountId()));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+            }
+            if (StringUtils.hasText(filter.getQ())) {
+                String pattern = "%" + filter.getQ().trim().toLowerCase()
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                predicates.add(cb.like(cb.lower(root.get("description")), pattern, '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Keyset condition for (date DESC, id DESC) ordering: rows strictly after the cursor row.
+     * Criteria has no row-value comparison, so this is {@code date <= :date AND (date < :date
+     * OR id < :id)}; the leading bound on date is what lets an index scan start at the cursor.
+     */
+    public static Specification<Transaction> after(LocalDate date, UUID id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("date"), date),
+                cb.or(cb.lessThan(root.get("date"), date), cb.lessThan(root.get("id"), id)));
+    }
+}
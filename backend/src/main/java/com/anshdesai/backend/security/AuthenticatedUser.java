@@ -0,0 +1,17 @@
+package com.anshdesai.backend.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.UUID;
+
+/**
+ * Principal of a JWT-authenticated request, built from the token's claims without a database lookup.
+ * Its name is the email, so {@code Authentication.getName()} still returns the email.
+ */
+public record AuthenticatedUser(UUID id, String email) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
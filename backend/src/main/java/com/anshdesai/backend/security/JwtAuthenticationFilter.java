@@ -1,48 +1,85 @@
 package com.anshdesai.backend.security;
 
+import com.anshdesai.backend.service.UserCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
+
+    // auth.jwt.filter{result}: time spent authenticating, excluding the rest of the request
+    private final Timer authenticated;
+    private final Timer anonymous;
+    private final Timer rejected;
+
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserCache userCache, MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.userCache = userCache;
+        this.authenticated = filterTimer(meterRegistry, "authenticated");
+        this.anonymous = filterTimer(meterRegistry, "anonymous");
+        this.rejected = filterTimer(meterRegistry, "rejected");
+    }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
+        long start = System.nanoTime();
+        Timer result = anonymous;
         try {
             String jwt = getJwtFromRequest(request);
+            if (StringUtils.hasText(jwt)) {
+                result = rejected; // until the token checks out
+            }
             
-            if (StringUtils.hasText(jwt) && jwtUtils.validateToken(jwt)) {
-                String email = jwtUtils.getEmailFromToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            // One parse verifies the token and yields its claims
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? jwtUtils.parseClaims(jwt) : Optional.empty();
+            if (claims.isPresent()) {
+                // The principal comes straight from the signed claims; no user lookup per request
+                AuthenticatedUser principal = jwtUtils.toPrincipal(claims.get());
+                if (principal.id() == null) {
+                    // Token issued before the uid claim: resolve the id by email, cached like users by id
+                    principal = userCache.findByEmail(principal.email())
+                            .map(user -> new AuthenticatedUser(user.getId(), user.getEmail()))
+                            .orElse(null);
+                }
+
+                if (principal != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal, null, AUTHORITIES);
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    result = authenticated;
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication", e);
         }
+        result.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         
         filterChain.doFilter(request, response);
     }
@@ -54,5 +91,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
 
+    private static Timer filterTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.filter")
+                .description("JWT authentication per request")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
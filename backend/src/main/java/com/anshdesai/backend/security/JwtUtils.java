@@ -1,6 +1,8 @@
 package com.anshdesai.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,51 +11,62 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
-    
-    @Value("${jwt.secret:your-secret-key-that-is-at-least-256-bits-long-for-hmac-sha-256-algorithm}")
-    private String jwtSecret;
-    
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-    private long jwtExpirationMs;
-    
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+
+    // User id claim, so requests can be authenticated without looking the user up
+    static final String USER_ID_CLAIM = "uid";
+
+    private final long jwtExpirationMs;
+
+    // Derived once: building the HMAC key and parser per call showed up on every request
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtUtils(
+            @Value("${jwt.secret:your-secret-key-that-is-at-least-256-bits-long-for-hmac-sha-256-algorithm}") String jwtSecret,
+            @Value("${jwt.expiration:86400000}") long jwtExpirationMs) { // 24 hours in milliseconds
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // JwtParser is immutable and thread-safe
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
     
-    public String generateToken(String email) {
+    public String generateToken(UUID userId, String email) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
         
         return Jwts.builder()
                 .subject(email)
+                .claim(USER_ID_CLAIM, userId.toString())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
-    
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getSubject();
-    }
-    
-    public boolean validateToken(String token) {
+
+    /**
+     * Verify the token (signature and expiry) and read its claims, in a single parse.
+     * Empty if the token is invalid.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
+
+    /**
+     * Principal from verified claims. The id is null for tokens issued before the uid claim existed.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return new AuthenticatedUser(userId != null ? UUID.fromString(userId) : null, claims.getSubject());
+    }
 }
@@ -0,0 +1,286 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.CorrelationId;
+import com.anshdesai.backend.model.BackfillJob;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.repository.BackfillJobRepository;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.plaid.client.model.TransactionsGetRequestOptions;
+import com.plaid.client.model.TransactionsGetResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports the history of newly linked items from /transactions/get, in the background.
+ *
+ * A job walks back from the link date to {@code months} before it, one date window at a time,
+ * paging through each window by offset. Every page is stored in its own transaction together
+ * with the job's checkpoint (window and offset), so a crash or restart resumes at the first
+ * page that was not committed. Jobs run on a small bounded pool, and every page fetch takes a
+ * token from the shared bucket, with a pause between pages, so live syncs keep most of the budget.
+ * The item row is locked while a page is stored, serializing it with syncs of the same item.
+ * Plaid only holds as much history as the link token asked for (see PlaidService#createLinkToken);
+ * for items linked with its 90-day default the older windows simply come back empty.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BackfillService {
+
+    // Plaid's largest /transactions/get page
+    private static final int PAGE_SIZE = 500;
+    private static final Set<BackfillJob.Status> UNFINISHED =
+            EnumSet.of(BackfillJob.Status.QUEUED, BackfillJob.Status.RUNNING);
+
+    private final BackfillJobRepository backfillJobRepository;
+    private final PlaidItemRepository plaidItemRepository;
+    private final PlaidService plaidService;
+    private final TransactionSyncService transactionSyncService;
+    private final PlaidFetchExecutor plaidFetchExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${backfill.months:24}")
+    private int months;
+
+    @Value("${backfill.window-days:90}")
+    private int windowDays;
+
+    @Value("${backfill.workers:1}")
+    private int workers;
+
+    @Value("${backfill.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${backfill.page-delay-ms:1000}")
+    private long pageDelayMs;
+
+    @Value("${backfill.not-ready-delay-seconds:300}")
+    private long notReadyDelaySeconds;
+
+    @Value("${backfill.base-backoff-seconds:60}")
+    private long baseBackoffSeconds;
+
+    @Value("${backfill.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${backfill.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    // Jobs queued or running in this instance, so a slow job is not queued twice; runJob's claim
+    // is what keeps other instances off it
+    private final Set<UUID> active = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startWorkers() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        // Interrupted jobs stay RUNNING and resume from their checkpoint once their claim lapses
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue the history import of a newly linked item; picked up by the next tick.
+     * Returns the item's existing job if it already has one.
+     */
+    public BackfillJob start(UUID plaidItemId) {
+        return backfillJobRepository.findByPlaidItemId(plaidItemId)
+                .orElseGet(() -> {
+                    LocalDate today = LocalDate.now();
+                    return backfillJobRepository.save(BackfillJob.builder()
+                            .plaidItemId(plaidItemId)
+                            .status(BackfillJob.Status.QUEUED)
+                            .startDate(today.minusMonths(months))
+                            .windowEnd(today)
+                            .nextAttemptAt(LocalDateTime.now())
+                            .build());
+                });
+    }
+
+    @Scheduled(initialDelayString = "${backfill.initial-delay-ms:30000}",
+               fixedDelayString = "${backfill.tick-ms:30000}")
+    public void runDueJobs() {
+        if (!enabled) {
+            return;
+        }
+
+        List<BackfillJob> due = backfillJobRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                UNFINISHED, LocalDateTime.now(), PageRequest.of(0, queueCapacity));
+        for (BackfillJob job : due) {
+            UUID jobId = job.getId();
+            if (!active.add(jobId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        runJob(jobId);
+                    } finally {
+                        active.remove(jobId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Still due, so the next tick offers it again
+                active.remove(jobId);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Claim the job, then import pages from its checkpoint until the oldest window is done or a
+     * page fails. The claim is a lease, renewed with every page; a runner that stops renewing it
+     * (crash, restart) leaves the job to whoever claims it next.
+     */
+    void runJob(UUID jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (backfillJobRepository.claim(jobId, now, now.plusSeconds(leaseSeconds)) == 0) {
+            // Not due, finished, or running elsewhere
+            return;
+        }
+        BackfillJob job = backfillJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        PlaidItem item = plaidItemRepository.findById(job.getPlaidItemId()).orElse(null);
+        if (item == null) {
+            return;
+        }
+
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(CorrelationId.MDC_KEY, jobId.toString())) {
+            String institution = plaidService.institutionKey(item);
+            while (!job.getWindowEnd().isBefore(job.getStartDate())) {
+                LocalDate windowEnd = job.getWindowEnd();
+                LocalDate windowStart = windowEnd.minusDays(windowDays - 1L);
+                if (windowStart.isBefore(job.getStartDate())) {
+                    windowStart = job.getStartDate();
+                }
+
+                TransactionsGetResponse page = fetchPage(item, institution, windowStart, windowEnd, job.getPageOffset());
+
+                BackfillJob checkpoint = job;
+                LocalDate pageWindowStart = windowStart;
+                job = transactionTemplate.execute(status -> importPage(checkpoint, pageWindowStart, page));
+
+                if (pageDelayMs > 0) {
+                    Thread.sleep(pageDelayMs);
+                }
+            }
+
+            job.setStatus(BackfillJob.Status.SUCCEEDED);
+            job.setFinishedAt(LocalDateTime.now());
+            backfillJobRepository.save(job);
+            log.info("backfill finished item={} transactions={}", item.getId(), job.getTransactionsAdded());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Our claim lapsed and another runner took the job over; the page it interrupted was rolled back
+            log.warn("backfill claim lost item={}", item.getId());
+        } catch (Exception e) {
+            recordFailure(jobId, job.getVersion(), e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private TransactionsGetResponse fetchPage(PlaidItem item, String institution, LocalDate windowStart,
+            LocalDate windowEnd, int offset) {
+        TransactionsGetRequestOptions options = new TransactionsGetRequestOptions()
+                .count(PAGE_SIZE)
+                .offset(offset)
+                .includePersonalFinanceCategory(true);
+        return plaidFetchExecutor.submit(institution,
+                        () -> plaidService.getTransactions(item.getAccessToken(), windowStart, windowEnd, options))
+                .join();
+    }
+
+    /**
+     * Store one page and move the checkpoint past it, in the caller's transaction.
+     */
+    private BackfillJob importPage(BackfillJob job, LocalDate windowStart, TransactionsGetResponse page) {
+        int added = transactionSyncService.importHistory(job.getPlaidItemId(),
+                page.getAccounts() != null ? page.getAccounts() : List.of(),
+                page.getTransactions() != null ? page.getTransactions() : List.of());
+
+        int fetched = page.getTransactions() != null ? page.getTransactions().size() : 0;
+        int nextOffset = job.getPageOffset() + fetched;
+        int total = page.getTotalTransactions() != null ? page.getTotalTransactions() : 0;
+        if (fetched == 0 || nextOffset >= total) {
+            // Window done; the next one ends the day before this one started
+            job.setWindowEnd(windowStart.minusDays(1));
+            job.setPageOffset(0);
+        } else {
+            job.setPageOffset(nextOffset);
+        }
+        job.setTransactionsAdded(job.getTransactionsAdded() + added);
+        job.setAttempts(0);
+        job.setError(null);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(leaseSeconds));
+        // Fails on a stale version if the job was claimed by someone else meanwhile
+        return backfillJobRepository.save(job);
+    }
+
+    private void recordFailure(UUID jobId, long version, Throwable cause) {
+        // Reloaded: the copy this run holds may carry a page that was rolled back
+        backfillJobRepository.findById(jobId).ifPresent(job -> {
+            if (job.getVersion() != version) {
+                // Claimed by another runner since our last checkpoint; the job is theirs now
+                return;
+            }
+            if (cause instanceof PlaidApiException plaidError && "PRODUCT_NOT_READY".equals(plaidError.getErrorCode())) {
+                // Plaid is still pulling the history from the bank; not a failure
+                job.setStatus(BackfillJob.Status.QUEUED);
+                job.setNextAttemptAt(LocalDateTime.now().plusSeconds(notReadyDelaySeconds));
+                backfillJobRepository.save(job);
+                log.info("backfill waiting for Plaid item={}", job.getPlaidItemId());
+                return;
+            }
+
+            int attempts = job.getAttempts() + 1;
+            job.setAttempts(attempts);
+            job.setError(cause.getMessage());
+            if (attempts >= maxAttempts) {
+                job.setStatus(BackfillJob.Status.FAILED);
+                job.setFinishedAt(LocalDateTime.now());
+            } else {
+                job.setStatus(BackfillJob.Status.QUEUED);
+                job.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+            }
+            backfillJobRepository.save(job);
+            log.warn("backfill failed item={} attempt={} error=\"{}\"", job.getPlaidItemId(), attempts, cause.getMessage());
+        });
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofSeconds(baseBackoffSeconds << Math.min(attempts - 1, 10));
+    }
+}
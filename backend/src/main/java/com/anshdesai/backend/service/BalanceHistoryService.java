@@ -0,0 +1,118 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.payload.NetWorthInterval;
+import com.anshdesai.backend.payload.NetWorthSeries;
+import com.anshdesai.backend.repository.AccountBalanceSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily account_balance_snapshots history that sync appends to, and reads it back as
+ * a net-worth series. The database reduces the history to one balance per account and bucket,
+ * so a multi-year chart costs at most accounts x buckets rows however often syncs ran.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+
+    // Plaid account types whose balance is money owed
+    private static final Set<String> LIABILITY_TYPES = Set.of("credit", "loan");
+
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+
+    @Value("${balance-history.max-points:5000}")
+    private int maxPoints;
+
+    @Value("${balance-history.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    /**
+     * Record today's balance of every account of the item. Call this in the sync transaction,
+     * after the item's accounts were updated.
+     */
+    @Transactional
+    public void recordBalances(UUID userId, UUID plaidItemId) {
+        snapshotRepository.upsertFromAccounts(userId, plaidItemId, LocalDate.now());
+    }
+
+    // Monthly partitions are created ahead of time, so rows never land in the default partition
+    @Scheduled(initialDelayString = "${balance-history.partitions.initial-delay-ms:0}",
+               fixedDelayString = "${balance-history.partitions.tick-ms:86400000}")
+    @Transactional
+    public void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            snapshotRepository.ensurePartition(month.plusMonths(i));
+        }
+    }
+
+    /**
+     * Net worth per bucket between from and to (both inclusive). Defaults to the year up to today.
+     * Throws IllegalArgumentException for an empty range or one with more than max-points buckets.
+     */
+    @Transactional(readOnly = true)
+    public NetWorthSeries getNetWorth(UUID userId, LocalDate from, LocalDate to, NetWorthInterval interval) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (interval.bucketsBetween(start, end) > maxPoints) {
+            throw new IllegalArgumentException("Range has more than " + maxPoints + " points, use a wider interval");
+        }
+
+        // Balances as of the previous bucket; accounts carry their last balance forward
+        Map<UUID, AccountBalanceSnapshotRepository.AccountBalance> current = new HashMap<>();
+        for (AccountBalanceSnapshotRepository.AccountBalance balance : snapshotRepository.findLastBalanceBefore(userId, start)) {
+            current.put(balance.getAccountId(), balance);
+        }
+        Map<LocalDate, List<AccountBalanceSnapshotRepository.BucketBalance>> byBucket = snapshotRepository
+                .findLastBalancePerBucket(userId, interval.getUnit(), start, end).stream()
+                .collect(Collectors.groupingBy(AccountBalanceSnapshotRepository.BucketBalance::getBucket));
+
+        List<NetWorthSeries.Point> points = new ArrayList<>();
+        for (LocalDate bucket = interval.bucketStart(start); !bucket.isAfter(end); bucket = interval.next(bucket)) {
+            for (AccountBalanceSnapshotRepository.BucketBalance balance : byBucket.getOrDefault(bucket, List.of())) {
+                current.put(balance.getAccountId(), balance);
+            }
+            // Nothing to chart before the first snapshot
+            if (!current.isEmpty()) {
+                points.add(point(bucket, current.values()));
+            }
+        }
+
+        return NetWorthSeries.builder()
+                .interval(interval)
+                .from(start)
+                .to(end)
+                .points(points)
+                .build();
+    }
+
+    private static NetWorthSeries.Point point(LocalDate bucket,
+                                              Iterable<AccountBalanceSnapshotRepository.AccountBalance> balances) {
+        BigDecimal assets = BigDecimal.ZERO;
+        BigDecimal liabilities = BigDecimal.ZERO;
+        for (AccountBalanceSnapshotRepository.AccountBalance balance : balances) {
+            if (LIABILITY_TYPES.contains(balance.getAccountType())) {
+                liabilities = liabilities.add(balance.getBalance());
+            } else {
+                assets = assets.add(balance.getBalance());
+            }
+        }
+        return new NetWorthSeries.Point(bucket, assets, liabilities, assets.subtract(liabilities));
+    }
+}
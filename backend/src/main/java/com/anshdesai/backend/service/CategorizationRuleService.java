@@ -0,0 +1,157 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.CategorizationRuleView;
+import com.anshdesai.backend.repository.CategorizationRuleRepository;
+import com.anshdesai.backend.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Categorization rule CRUD plus a per-user cache of compiled {@link RuleMatcher}s.
+ * A user's matcher is built on first use and dropped whenever their rules change.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategorizationRuleService {
+
+    private final CategorizationRuleRepository categorizationRuleRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final Map<UUID, RuleMatcher> matchers = new ConcurrentHashMap<>();
+
+    /**
+     * The user's compiled rules, loading and compiling them if not cached.
+     */
+    public RuleMatcher matcherFor(UUID userId) {
+        return matchers.computeIfAbsent(userId,
+                id -> RuleMatcher.compile(categorizationRuleRepository.findByUserId(id)));
+    }
+
+    /**
+     * Drop the user's compiled rules. Inside a transaction this waits for the commit,
+     * so a sync running meanwhile can't re-cache the rules as they were before it.
+     */
+    public void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    matchers.remove(userId);
+                }
+            });
+        } else {
+            matchers.remove(userId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategorizationRuleView> getRules(User user) {
+        return categorizationRuleRepository.findByUserId(user.getId()).stream()
+                .map(CategorizationRuleView::from)
+                .toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule is incomplete, its regex doesn't compile
+     *                                  or the category isn't the user's
+     */
+    @Transactional
+    public CategorizationRuleView createRule(User user, String keyword, UUID categoryId,
+                                             Integer priority, CategorizationRule.MatchType matchType) {
+        if (matchType == null) {
+            throw new IllegalArgumentException("matchType is required");
+        }
+        validateKeyword(keyword, matchType);
+
+        CategorizationRule rule = CategorizationRule.builder()
+                .user(user)
+                .keyword(keyword)
+                .category(userCategory(user, categoryId))
+                .priority(priority != null ? priority : 0)
+                .matchType(matchType)
+                .build();
+
+        CategorizationRule saved = categorizationRuleRepository.save(rule);
+        invalidate(user.getId());
+        return CategorizationRuleView.from(saved);
+    }
+
+    /**
+     * Apply the non-null fields to the user's rule. Empty if the rule doesn't exist or isn't theirs.
+     *
+     * @throws IllegalArgumentException as for {@link #createRule}
+     */
+    @Transactional
+    public Optional<CategorizationRuleView> updateRule(User user, UUID ruleId, String keyword, UUID categoryId,
+                                                       Integer priority, CategorizationRule.MatchType matchType) {
+        Optional<CategorizationRule> found = categorizationRuleRepository.findByIdAndUserId(ruleId, user.getId());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CategorizationRule rule = found.get();
+        if (keyword != null) {
+            rule.setKeyword(keyword);
+        }
+        if (matchType != null) {
+            rule.setMatchType(matchType);
+        }
+        if (categoryId != null) {
+            rule.setCategory(userCategory(user, categoryId));
+        }
+        if (priority != null) {
+            rule.setPriority(priority);
+        }
+        validateKeyword(rule.getKeyword(), rule.getMatchType());
+
+        invalidate(user.getId());
+        return Optional.of(CategorizationRuleView.from(categorizationRuleRepository.save(rule)));
+    }
+
+    /**
+     * @return false if the rule doesn't exist or isn't the user's
+     */
+    @Transactional
+    public boolean deleteRule(User user, UUID ruleId) {
+        Optional<CategorizationRule> rule = categorizationRuleRepository.findByIdAndUserId(ruleId, user.getId());
+        rule.ifPresent(categorizationRuleRepository::delete);
+        invalidate(user.getId());
+        return rule.isPresent();
+    }
+
+    private Category userCategory(User user, UUID categoryId) {
+        if (categoryId == null) {
+            throw new IllegalArgumentException("categoryId is required");
+        }
+        return categoryRepository.findById(categoryId)
+                .filter(category -> category.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
+    }
+
+    private void validateKeyword(String keyword, CategorizationRule.MatchType matchType) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new IllegalArgumentException("keyword is required");
+        }
+        if (matchType == CategorizationRule.MatchType.REGEX) {
+            try {
+                Pattern.compile(keyword);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid regex: " + e.getDescription());
+            }
+        }
+    }
+}
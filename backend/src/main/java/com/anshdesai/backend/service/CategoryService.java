@@ -0,0 +1,29 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategorizationRuleService categorizationRuleService;
+
+    /**
+     * Delete a category, leaving its transactions uncategorized.
+     * Spending rollup rows fold into "uncategorized" through their ON DELETE SET NULL key,
+     * and the category's rules go with it.
+     */
+    @Transactional
+    public void deleteCategory(Category category) {
+        transactionRepository.detachCategory(category.getId());
+        categoryRepository.delete(category);
+        categorizationRuleService.invalidate(category.getUser().getId());
+    }
+}
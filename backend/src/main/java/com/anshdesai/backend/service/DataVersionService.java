@@ -0,0 +1,92 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user version of the data behind the transaction and category listings, served as their
+ * ETag. It is bumped with every change to a user's transactions or categories, and reads come
+ * from memory, so a request whose If-None-Match still matches is answered without any query.
+ *
+ * Versions only grow, so a cached value is replaced only by a larger one; the TTL bounds how
+ * long a bump made by another instance can go unnoticed.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final UserRepository userRepository;
+
+    @Value("${data-version.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${data-version.cache.max-size:10000}")
+    private int maxSize;
+
+    private record Entry(long version, long expiresAtNanos) {
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Strong ETag for the user's listings. The user id is part of it, so a browser shared by two
+     * accounts can never revalidate one user's copy against the other's version.
+     */
+    public String etag(UUID userId) {
+        return "\"" + userId + "-" + current(userId) + "\"";
+    }
+
+    public long current(UUID userId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            return entry.version();
+        }
+
+        long version = userRepository.findDataVersion(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        remember(userId, version, now);
+        return version;
+    }
+
+    /**
+     * Mark the user's transactions or categories as changed. Call it after the change, in the same
+     * transaction when there is one; the new version is published once that transaction commits.
+     */
+    @Transactional
+    public void bump(UUID userId) {
+        userRepository.incrementDataVersion(userId);
+        long version = userRepository.findDataVersion(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(userId, version, System.nanoTime());
+            }
+        });
+    }
+
+    private void remember(UUID userId, long version, long now) {
+        if (entries.size() >= maxSize && !entries.containsKey(userId)) {
+            entries.values().removeIf(e -> now - e.expiresAtNanos() >= 0);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        Entry fresh = new Entry(version, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        // A load that read the old version before a bump committed must not overwrite the bump
+        entries.merge(userId, fresh, (old, next) -> old.version() > next.version()
+                ? new Entry(old.version(), next.expiresAtNanos())
+                : next);
+    }
+}
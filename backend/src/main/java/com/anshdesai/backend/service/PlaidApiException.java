@@ -0,0 +1,55 @@
+package com.anshdesai.backend.service;
+
+import lombok.Getter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * A failed Plaid call. {@code status} is the HTTP status, or 0 when no response arrived
+ * (timeout, connection reset); errorType and errorCode come from Plaid's error body.
+ */
+@Getter
+public class PlaidApiException extends RuntimeException {
+
+    private final String operation;
+    private final int status;
+    private final String errorType;
+    private final String errorCode;
+
+    public PlaidApiException(String operation, int status, String errorType, String errorCode, String message,
+                             Throwable cause) {
+        super("Plaid " + operation + " failed: "
+                + (status > 0 ? status : "no response")
+                + (errorCode != null ? " " + errorCode : "")
+                + (message != null ? " (" + message + ")" : ""), cause);
+        this.operation = operation;
+        this.status = status;
+        this.errorType = errorType;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Build from an error response, reading error_type/error_code/error_message when the body is Plaid's JSON.
+     */
+    public static PlaidApiException fromResponse(String operation, int status, String body) {
+        if (body == null || body.isBlank()) {
+            return new PlaidApiException(operation, status, null, null, null, null);
+        }
+        try {
+            JsonNode error = JsonMapper.shared().readTree(body);
+            return new PlaidApiException(operation, status, error.path("error_type").stringValue(null),
+                    error.path("error_code").stringValue(null), error.path("error_message").stringValue(body), null);
+        } catch (JacksonException e) {
+            return new PlaidApiException(operation, status, null, null, body, null);
+        }
+    }
+
+    /**
+     * Plaid or the bank behind it is down or not answering, as opposed to a problem with this
+     * request or item (bad token, ITEM_LOGIN_REQUIRED, rate limit).
+     */
+    public boolean isOutage() {
+        return status == 0 || status >= 500 || "INSTITUTION_ERROR".equals(errorType);
+    }
+}
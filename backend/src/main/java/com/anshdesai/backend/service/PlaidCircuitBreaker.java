@@ -0,0 +1,96 @@
+package com.anshdesai.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Circuit breaker per institution for Plaid fetches. After {@code failureThreshold} outages in a
+ * row (timeouts, no response, 5xx, INSTITUTION_ERROR) the institution is skipped for
+ * {@code openSeconds}; then a single trial fetch decides whether it closes or stays open.
+ * Failures that are about the item rather than the bank (e.g. ITEM_LOGIN_REQUIRED) count as
+ * the institution answering.
+ */
+@Slf4j
+@Component
+public class PlaidCircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public PlaidCircuitBreaker(@Value("${plaid.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${plaid.circuit-breaker.open-seconds:60}") long openSeconds) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    }
+
+    /**
+     * Whether a fetch for this institution may go ahead. Every true must be followed by
+     * onSuccess or onFailure.
+     */
+    public boolean tryAcquire(String institution) {
+        return circuit(institution).tryAcquire();
+    }
+
+    public void onSuccess(String institution) {
+        circuit(institution).close();
+    }
+
+    public void onFailure(String institution, Throwable cause) {
+        if (isOutage(cause)) {
+            circuit(institution).failed(institution);
+        } else {
+            circuit(institution).close();
+        }
+    }
+
+    static boolean isOutage(Throwable cause) {
+        return cause instanceof TimeoutException
+                || cause instanceof PlaidApiException plaid && plaid.isOutage();
+    }
+
+    private Circuit circuit(String institution) {
+        return circuits.computeIfAbsent(institution, i -> new Circuit());
+    }
+
+    private final class Circuit {
+
+        private int consecutiveFailures;
+        private boolean open;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        synchronized boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (System.nanoTime() - openedAt < openNanos || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void close() {
+            consecutiveFailures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        synchronized void failed(String institution) {
+            consecutiveFailures++;
+            if (trialInFlight || (!open && consecutiveFailures >= failureThreshold)) {
+                log.warn("plaid circuit opened institution=\"{}\" failures={}", institution, consecutiveFailures);
+                open = true;
+                openedAt = System.nanoTime();
+                trialInFlight = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.CorrelationId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs blocking Plaid calls on virtual threads so several items can be fetched at once.
+ * A shared semaphore caps how many calls are in flight across all syncs, and each call
+ * takes a token from the shared rate limiter, so a sync of many pages is paced page by page.
+ * Each call gets its own timeout that starts once it holds a permit and a token.
+ *
+ * Fetches are also grouped by institution, keyed as in PlaidService#institutionKey: each bank
+ * gets its own, smaller bulkhead, taken before the shared permit, and a circuit breaker that
+ * fails its fetches fast while it is down. A slow bank can then only hold its own share of the
+ * shared permits.
+ */
+@Component
+public class PlaidFetchExecutor implements DisposableBean {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxPerInstitution;
+    private final ConcurrentMap<String, Semaphore> institutionPermits = new ConcurrentHashMap<>();
+    private final long itemTimeoutMs;
+    private final PlaidCircuitBreaker circuitBreaker;
+    private final PlaidRateLimiter rateLimiter;
+
+    public PlaidFetchExecutor(@Value("${sync.fetch.max-concurrency:8}") int maxConcurrency,
+                              @Value("${sync.fetch.max-per-institution:4}") int maxPerInstitution,
+                              @Value("${sync.fetch.item-timeout-ms:30000}") long itemTimeoutMs,
+                              PlaidCircuitBreaker circuitBreaker,
+                              PlaidRateLimiter rateLimiter) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxPerInstitution = maxPerInstitution;
+        this.itemTimeoutMs = itemTimeoutMs;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public <T> CompletableFuture<T> submit(String institution, Callable<T> task) {
+        String key = institution != null ? institution : "unknown";
+        Semaphore bulkhead = institutionPermits.computeIfAbsent(key, k -> new Semaphore(maxPerInstitution, true));
+        // Fetch logs carry the correlation id of the sync that asked for them
+        Callable<T> fetch = CorrelationId.propagate(task);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                // Queued fetches for a busy bank wait here without holding a shared permit
+                bulkhead.acquire();
+                try {
+                    permits.acquire();
+                    try {
+                        result.complete(callGuarded(key, fetch));
+                    } finally {
+                        permits.release();
+                    }
+                } finally {
+                    bulkhead.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private <T> T callGuarded(String institution, Callable<T> fetch) throws Exception {
+        if (!circuitBreaker.tryAcquire(institution)) {
+            throw new RuntimeException("Plaid circuit open for " + institution + ", skipping fetch");
+        }
+        try {
+            // Fetches refused by an open circuit never reach Plaid, so they take no token
+            rateLimiter.acquire();
+            T value = callWithTimeout(fetch);
+            circuitBreaker.onSuccess(institution);
+            return value;
+        } catch (Exception e) {
+            circuitBreaker.onFailure(institution, e);
+            throw e;
+        }
+    }
+
+    private <T> T callWithTimeout(Callable<T> fetch) throws Exception {
+        Future<T> call = executor.submit(fetch);
+        try {
+            return call.get(itemTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The interrupt frees the thread; the Plaid client's call timeout, of the same length,
+            // is what closes the socket (see PlaidClientConfig)
+            call.cancel(true);
+            throw new TimeoutException("Plaid fetch timed out after " + itemTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
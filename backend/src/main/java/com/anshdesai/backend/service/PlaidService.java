@@ -5,13 +5,20 @@ import com.anshdesai.backend.model.User;
 import com.anshdesai.backend.repository.PlaidItemRepository;
 import com.plaid.client.request.PlaidApi;
 import com.plaid.client.model.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import retrofit2.Call;
 import retrofit2.Response;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -19,87 +26,155 @@ public class PlaidService {
 
     private final PlaidApi plaidApi;
     private final PlaidItemRepository plaidItemRepository;
+    private final MeterRegistry meterRegistry;
 
-    public String createLinkToken(User user) {
-        try {
-            LinkTokenCreateRequestUser plaidUser = new LinkTokenCreateRequestUser()
-                    .clientUserId(user.getId().toString());
+    // Where Plaid sends item webhooks (POST /api/plaid/webhook); blank to link items without webhooks
+    @Value("${plaid.webhook-url:}")
+    private String webhookUrl;
 
-            LinkTokenCreateRequest request = new LinkTokenCreateRequest()
-                    .user(plaidUser)
-                    .clientName("FinPilot")
-                    .products(Arrays.asList(Products.AUTH, Products.TRANSACTIONS))
-                    .countryCodes(Collections.singletonList(CountryCode.US))
-                    .language("en");
+    // History Plaid pulls from the bank at link time; it has nothing older to serve the backfill
+    @Value("${backfill.months:24}")
+    private int backfillMonths;
 
-            Response<LinkTokenCreateResponse> response = plaidApi
-                    .linkTokenCreate(request)
-                    .execute();
+    // Plaid's maximum for transactions.days_requested
+    private static final int MAX_DAYS_REQUESTED = 730;
 
-            if (response.isSuccessful() && response.body() != null) {
-                return response.body().getLinkToken();
-            } else {
-                throw new RuntimeException(
-                        "Plaid Error: " + (response.errorBody() != null ? response.errorBody().string() : "Unknown"));
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error creating link token", e);
+    public String createLinkToken(User user) {
+        LinkTokenCreateRequestUser plaidUser = new LinkTokenCreateRequestUser()
+                .clientUserId(user.getId().toString());
+
+        LinkTokenCreateRequest request = new LinkTokenCreateRequest()
+                .user(plaidUser)
+                .clientName("FinPilot")
+                .products(Arrays.asList(Products.AUTH, Products.TRANSACTIONS))
+                .countryCodes(Collections.singletonList(CountryCode.US))
+                .language("en")
+                .transactions(new LinkTokenTransactions().daysRequested(daysRequested()));
+        if (!webhookUrl.isBlank()) {
+            request.webhook(webhookUrl);
         }
+
+        return execute("link_token_create", plaidApi.linkTokenCreate(request)).getLinkToken();
     }
 
-    public void exchangePublicToken(User user, String publicToken) {
+    // Plaid defaults to 90 days; items linked with that default can't be backfilled further than it
+    private int daysRequested() {
+        LocalDate today = LocalDate.now();
+        long days = ChronoUnit.DAYS.between(today.minusMonths(backfillMonths), today);
+        return Math.clamp(days, 1, MAX_DAYS_REQUESTED);
+    }
+
+    /**
+     * institutionName comes from Plaid Link's onSuccess metadata (older clients don't send it) and
+     * is only shown to the user; the institution_id that keys per-bank limits comes from Plaid.
+     */
+    public PlaidItem exchangePublicToken(User user, String publicToken, String institutionName) {
+        ItemPublicTokenExchangeRequest request = new ItemPublicTokenExchangeRequest()
+                .publicToken(publicToken);
+
+        ItemPublicTokenExchangeResponse response = execute("item_public_token_exchange", plaidApi
+                .itemPublicTokenExchange(request));
+
+        PlaidItem item = new PlaidItem();
+        item.setUser(user);
+        item.setAccessToken(response.getAccessToken());
+        item.setItemId(response.getItemId());
+        item.setInstitutionName(institutionName != null && !institutionName.isBlank() ? institutionName : "Sandbox Bank");
+        item.setStatus("ACTIVE");
         try {
-            ItemPublicTokenExchangeRequest request = new ItemPublicTokenExchangeRequest()
-                    .publicToken(publicToken);
+            item.setInstitutionId(getInstitutionId(response.getAccessToken()));
+        } catch (PlaidApiException e) {
+            // The item is linked either way; its first sync looks the institution up again
+        }
 
-            Response<ItemPublicTokenExchangeResponse> response = plaidApi
-                    .itemPublicTokenExchange(request)
-                    .execute();
+        return plaidItemRepository.save(item);
+    }
 
-            if (response.isSuccessful() && response.body() != null) {
-                PlaidItem item = new PlaidItem();
-                item.setUser(user);
-                item.setAccessToken(response.body().getAccessToken());
-                item.setItemId(response.body().getItemId());
-                item.setInstitutionName("Sandbox Bank"); // Now this will work!
-                item.setStatus("ACTIVE");
-
-                plaidItemRepository.save(item);
-            } else {
-                throw new RuntimeException(
-                        "Plaid Error: " + (response.errorBody() != null ? response.errorBody().string() : "Unknown"));
+    /**
+     * Key of the item's bank for PlaidFetchExecutor's bulkhead and circuit breaker: Plaid's
+     * institution_id. Items stored without one look it up here once and keep it; until that
+     * succeeds the item is keyed on its own id, so it never shares another bank's limits.
+     */
+    public String institutionKey(PlaidItem item) {
+        if (item.getInstitutionId() != null) {
+            return item.getInstitutionId();
+        }
+        try {
+            String institutionId = getInstitutionId(item.getAccessToken());
+            if (institutionId != null) {
+                plaidItemRepository.updateInstitutionId(item.getId(), institutionId);
+                return institutionId;
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error exchanging token", e);
+        } catch (PlaidApiException e) {
+            // Retried on the item's next sync
         }
+        return "item:" + item.getId();
     }
 
-    // Fixed: Uses the startDate/endDate arguments you pass in
+    private String getInstitutionId(String accessToken) {
+        ItemGetRequest request = new ItemGetRequest()
+                .accessToken(accessToken);
+
+        return execute("item_get", plaidApi.itemGet(request)).getItem().getInstitutionId();
+    }
+
+    // One page of an item's transactions dated startDate..endDate; used by BackfillService
     public TransactionsGetResponse getTransactions(String accessToken, LocalDate startDate, LocalDate endDate,
             TransactionsGetRequestOptions options) {
-        try {
-            TransactionsGetRequest request = new TransactionsGetRequest()
-                    .accessToken(accessToken)
-                    .startDate(startDate)
-                    .endDate(endDate)
-                    .options(options);
+        TransactionsGetRequest request = new TransactionsGetRequest()
+                .accessToken(accessToken)
+                .startDate(startDate)
+                .endDate(endDate)
+                .options(options);
+
+        return execute("transactions_get", plaidApi.transactionsGet(request));
+    }
+
+    // Single page of /transactions/sync; pass a null cursor for the initial pull
+    public TransactionsSyncResponse syncTransactions(String accessToken, String cursor) {
+        TransactionsSyncRequest request = new TransactionsSyncRequest()
+                .accessToken(accessToken)
+                .cursor(cursor)
+                .count(500)
+                .options(new TransactionsSyncRequestOptions()
+                        .includePersonalFinanceCategory(true));
+
+        return execute("transactions_sync", plaidApi.transactionsSync(request));
+    }
 
-            Response<TransactionsGetResponse> response = plaidApi
-                    .transactionsGet(request)
-                    .execute();
+    // Public key for the kid in a webhook's Plaid-Verification header; see PlaidWebhookVerifier
+    public JWKPublicKey getWebhookVerificationKey(String keyId) {
+        WebhookVerificationKeyGetRequest request = new WebhookVerificationKeyGetRequest()
+                .keyId(keyId);
 
+        return execute("webhook_verification_key_get", plaidApi.webhookVerificationKeyGet(request)).getKey();
+    }
+
+    /**
+     * Run one Plaid call and return its body, or throw a PlaidApiException carrying the status and
+     * Plaid error code. 429/5xx were already retried by PlaidRetryInterceptor underneath.
+     * Timed as plaid.requests{operation, status}; status is the final HTTP code or IO_ERROR.
+     */
+    private <T> T execute(String operation, Call<T> call) {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            Response<T> response = call.execute();
+            status = String.valueOf(response.code());
             if (response.isSuccessful() && response.body() != null) {
                 return response.body();
-            } else {
-                // Safe error handling to avoid warnings
-                String errorMsg = "Unknown error";
-                if (response.errorBody() != null) {
-                    errorMsg = response.errorBody().string();
-                }
-                throw new RuntimeException("Error fetching transactions: " + errorMsg);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching transactions", e);
+            throw PlaidApiException.fromResponse(operation, response.code(),
+                    response.errorBody() != null ? response.errorBody().string() : null);
+        } catch (IOException e) {
+            throw new PlaidApiException(operation, 0, null, null, e.getMessage(), e);
+        } finally {
+            Timer.builder("plaid.requests")
+                    .description("Plaid API calls")
+                    .tag("operation", operation)
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns Plaid webhooks into syncs of just the item they are about. The request thread only
+ * verifies, de-duplicates and queues; the sync itself runs on a small bounded worker pool,
+ * paced by the same token bucket as scheduled syncs.
+ *
+ * Deliveries are de-duplicated by their signed token, so a redelivered webhook is dropped.
+ * Work is coalesced per item: while a sync for an item waits in the queue, further webhooks
+ * for it are absorbed by that sync; one arriving while it runs queues exactly one more run,
+ * since the running sync may have fetched before the new data was there.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaidWebhookService {
+
+    public enum Outcome {
+        // A sync of the item is queued (or already was)
+        QUEUED,
+        // Not an event we sync on
+        IGNORED,
+        // Seen this delivery already
+        DUPLICATE,
+        // Failed verification
+        REJECTED,
+        // Queue full; Plaid retries deliveries that were not acknowledged
+        BUSY
+    }
+
+    private static final Set<String> SYNC_CODES = Set.of("SYNC_UPDATES_AVAILABLE", "DEFAULT_UPDATE");
+
+    private enum ItemState { QUEUED, RUNNING, RERUN }
+
+    private final PlaidWebhookVerifier verifier;
+    private final PlaidItemRepository plaidItemRepository;
+    private final SyncScheduler syncScheduler;
+    private final JsonMapper jsonMapper;
+
+    // Off only for replaying payloads locally against a Plaid stand-in
+    @Value("${plaid.webhook.verify:true}")
+    private boolean verify;
+
+    @Value("${plaid.webhook.workers:2}")
+    private int workers;
+
+    @Value("${plaid.webhook.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${plaid.webhook.dedup-ttl-seconds:600}")
+    private long dedupTtlSeconds;
+
+    @Value("${plaid.webhook.dedup-max-size:10000}")
+    private int dedupMaxSize;
+
+    private ThreadPoolExecutor executor;
+
+    // Delivery key -> System.nanoTime() after which it is forgotten
+    private final Map<String, Long> deliveries = new ConcurrentHashMap<>();
+
+    // Plaid item_id -> where its webhook sync is
+    private final Map<String, ItemState> items = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startWorkers() {
+        if (!verify) {
+            log.warn("Plaid webhook verification is off; set plaid.webhook.verify=true outside local testing");
+        }
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        // Dropped syncs are not lost: the scheduler still picks the items up when they go stale
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handle one delivery. Does no database or Plaid work itself (bar the first sighting of a
+     * signing key), so Plaid gets its answer within milliseconds.
+     */
+    public Outcome receive(String verificationToken, byte[] body) {
+        if (verify && !verifier.verify(verificationToken, body)) {
+            return Outcome.REJECTED;
+        }
+
+        JsonNode payload;
+        try {
+            payload = jsonMapper.readTree(body);
+        } catch (JacksonException e) {
+            return Outcome.IGNORED;
+        }
+        String type = payload.path("webhook_type").asString("");
+        String code = payload.path("webhook_code").asString("");
+        String itemId = payload.path("item_id").asString("");
+        if (!"TRANSACTIONS".equals(type) || !SYNC_CODES.contains(code) || itemId.isEmpty()) {
+            return Outcome.IGNORED;
+        }
+
+        String deliveryKey = verificationToken != null && !verificationToken.isBlank()
+                ? verificationToken
+                : PlaidWebhookVerifier.sha256Hex(body);
+        if (!firstDelivery(deliveryKey)) {
+            return Outcome.DUPLICATE;
+        }
+
+        try {
+            enqueue(itemId);
+        } catch (RejectedExecutionException e) {
+            // Let Plaid's retry of this delivery through
+            deliveries.remove(deliveryKey);
+            return Outcome.BUSY;
+        }
+        log.info("webhook {} queued sync for item {}", code, itemId);
+        return Outcome.QUEUED;
+    }
+
+    private boolean firstDelivery(String deliveryKey) {
+        long now = System.nanoTime();
+        if (deliveries.size() >= dedupMaxSize) {
+            deliveries.values().removeIf(expiresAt -> now - expiresAt >= 0);
+        }
+        long expiresAt = now + TimeUnit.SECONDS.toNanos(dedupTtlSeconds);
+        Long previous = deliveries.put(deliveryKey, expiresAt);
+        return previous == null || now - previous >= 0;
+    }
+
+    private void enqueue(String itemId) {
+        items.compute(itemId, (id, state) -> {
+            if (state == null) {
+                // Throws when the queue is full, leaving the item untracked
+                executor.execute(() -> run(id));
+                return ItemState.QUEUED;
+            }
+            return state == ItemState.RUNNING ? ItemState.RERUN : state;
+        });
+    }
+
+    private void run(String itemId) {
+        items.computeIfPresent(itemId, (id, state) -> ItemState.RUNNING);
+        try {
+            List<PlaidItemRepository.DueItem> matches = plaidItemRepository.findActiveByItemId(itemId);
+            if (matches.isEmpty()) {
+                log.info("webhook for unknown or inactive item {}", itemId);
+            }
+            for (PlaidItemRepository.DueItem item : matches) {
+                syncScheduler.syncItem(item);
+            }
+        } catch (Exception e) {
+            log.warn("webhook sync failed item={} error=\"{}\"", itemId, e.getMessage());
+        } finally {
+            ItemState next = items.computeIfPresent(itemId,
+                    (id, state) -> state == ItemState.RERUN ? ItemState.QUEUED : null);
+            if (next == ItemState.QUEUED) {
+                try {
+                    executor.execute(() -> run(itemId));
+                } catch (RejectedExecutionException e) {
+                    // The scheduler catches up with it later
+                    items.remove(itemId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.anshdesai.backend.service;
+
+import com.plaid.client.model.JWKPublicKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the Plaid-Verification header of incoming webhooks: an ES256 JWT signed with one of
+ * Plaid's rotating keys, whose request_body_sha256 claim must match the body and whose iat must
+ * be recent. Keys come from /webhook_verification_key/get the first time a key id is seen and
+ * are cached, so a verified webhook costs no Plaid call after that.
+ *
+ * The endpoint is public, so key ids Plaid does not know are remembered apart from the real keys,
+ * in a bounded LRU that can never push a real key out, and lookups of ids not seen before are
+ * limited to {@code key-fetches-per-second}; past that a delivery is rejected without asking Plaid.
+ */
+@Slf4j
+@Component
+public class PlaidWebhookVerifier {
+
+    private static final String BODY_HASH_CLAIM = "request_body_sha256";
+    private static final int MAX_KEYS = 64;
+    private static final int MAX_UNKNOWN_KEYS = 1_024;
+    private static final long FETCH_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final PlaidService plaidService;
+    private final long maxAgeMillis;
+    private final long keyCacheNanos;
+    private final int keyFetchesPerSecond;
+    private final JwtParser parser;
+
+    private record CachedKey(Key key, long expiresAtNanos) {
+    }
+
+    // Keys Plaid gave us; only ever evicted once expired
+    private final Map<String, CachedKey> keys = new ConcurrentHashMap<>();
+
+    // Key ids Plaid does not know or has expired -> until when to believe that
+    private final Map<String, Long> unknownKeys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_UNKNOWN_KEYS;
+        }
+    };
+
+    // Key lookups in the current one-second window
+    private long fetchWindowStart = System.nanoTime();
+    private int fetchesInWindow;
+
+    public PlaidWebhookVerifier(PlaidService plaidService,
+                                @Value("${plaid.webhook.max-age-seconds:300}") long maxAgeSeconds,
+                                @Value("${plaid.webhook.key-cache-seconds:3600}") long keyCacheSeconds,
+                                @Value("${plaid.webhook.key-fetches-per-second:2}") int keyFetchesPerSecond) {
+        this.plaidService = plaidService;
+        this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+        this.keyCacheNanos = TimeUnit.SECONDS.toNanos(keyCacheSeconds);
+        this.keyFetchesPerSecond = keyFetchesPerSecond;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return keyFor(header);
+                    }
+                })
+                .build();
+    }
+
+    public boolean verify(String token, byte[] body) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+
+            // Older tokens could be replays of a captured delivery
+            Date issuedAt = claims.getIssuedAt();
+            if (issuedAt == null || Math.abs(System.currentTimeMillis() - issuedAt.getTime()) > maxAgeMillis) {
+                log.warn("rejected Plaid webhook: token issued at {}", issuedAt);
+                return false;
+            }
+
+            String expected = claims.get(BODY_HASH_CLAIM, String.class);
+            if (expected == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                    sha256Hex(body).getBytes(StandardCharsets.US_ASCII))) {
+                log.warn("rejected Plaid webhook: body does not match its signed hash");
+                return false;
+            }
+            return true;
+        } catch (JwtException | IllegalArgumentException | PlaidApiException e) {
+            log.warn("rejected Plaid webhook: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private Key keyFor(ProtectedHeader header) {
+        if (!"ES256".equals(header.getAlgorithm()) || header.getKeyId() == null) {
+            throw new UnsupportedJwtException("Expected an ES256 token with a key id");
+        }
+
+        String keyId = header.getKeyId();
+        long now = System.nanoTime();
+        CachedKey cached = keys.get(keyId);
+        if (cached != null && now - cached.expiresAtNanos() < 0) {
+            return cached.key();
+        }
+        if (isKnownUnknown(keyId, now)) {
+            throw new UnsupportedJwtException("Unknown or expired Plaid webhook key " + keyId);
+        }
+        if (!tryStartFetch(now)) {
+            // Plaid retries the delivery; a flood of made-up ids must not turn into Plaid calls
+            throw new UnsupportedJwtException("Too many new webhook key ids, not looking up " + keyId);
+        }
+
+        Key key = fetchKey(keyId);
+        if (key == null) {
+            synchronized (unknownKeys) {
+                unknownKeys.put(keyId, now + keyCacheNanos);
+            }
+            throw new UnsupportedJwtException("Unknown or expired Plaid webhook key " + keyId);
+        }
+        if (keys.size() >= MAX_KEYS) {
+            keys.values().removeIf(expired -> now - expired.expiresAtNanos() >= 0);
+        }
+        if (keys.size() < MAX_KEYS) {
+            keys.put(keyId, new CachedKey(key, now + keyCacheNanos));
+        }
+        return key;
+    }
+
+    private boolean isKnownUnknown(String keyId, long now) {
+        synchronized (unknownKeys) {
+            Long expiresAt = unknownKeys.get(keyId);
+            if (expiresAt != null && now - expiresAt >= 0) {
+                unknownKeys.remove(keyId);
+                return false;
+            }
+            return expiresAt != null;
+        }
+    }
+
+    private synchronized boolean tryStartFetch(long now) {
+        if (now - fetchWindowStart >= FETCH_WINDOW_NANOS) {
+            fetchWindowStart = now;
+            fetchesInWindow = 0;
+        }
+        if (fetchesInWindow >= keyFetchesPerSecond) {
+            return false;
+        }
+        fetchesInWindow++;
+        return true;
+    }
+
+    // Null when Plaid does not know the key id or has expired the key
+    private Key fetchKey(String keyId) {
+        try {
+            JWKPublicKey jwk = plaidService.getWebhookVerificationKey(keyId);
+            if (jwk == null || jwk.getExpiredAt() != null) {
+                return null;
+            }
+            return Jwks.builder()
+                    .add(Map.of("kty", jwk.getKty(), "crv", jwk.getCrv(), "x", jwk.getX(), "y", jwk.getY()))
+                    .build()
+                    .toKey();
+        } catch (PlaidApiException e) {
+            // Only Plaid's answer is cached; an outage just fails this delivery, which Plaid retries
+            if (e.isOutage()) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    static String sha256Hex(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
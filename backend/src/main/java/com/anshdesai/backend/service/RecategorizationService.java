@@ -0,0 +1,219 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.CorrelationId;
+import com.anshdesai.backend.payload.RecategorizationJob;
+import com.anshdesai.backend.repository.AccountRepository;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import com.anshdesai.backend.repository.TransactionRepository.CategorizationCandidate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Applies a user's categorization rules to the transactions they already have, as a background job.
+ * Each account's transactions are read in id-ordered chunks of a few columns (an index range
+ * scan on (account_id, id), so chunk cost doesn't grow with history) and each chunk's changes are
+ * written with one UPDATE per target category in a short transaction of its own, so the heap
+ * never holds more than a chunk. Rows no rule matches keep their category.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecategorizationService {
+
+    // Keyset start: sorts before every other uuid
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategorizationRuleService categorizationRuleService;
+    private final SpendingRollupService spendingRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+
+    @Value("${rules.apply.workers:2}")
+    private int workers;
+
+    @Value("${rules.apply.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${rules.apply.chunk-size:1000}")
+    private int chunkSize;
+
+    private ThreadPoolExecutor executor;
+
+    // Latest job per user. Jobs are cheap to rerun, so they are not persisted.
+    private final Map<UUID, RecategorizationJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startWorkers() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a re-categorization for the user, or return the one already queued or running.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public synchronized RecategorizationJob enqueue(UUID userId) {
+        RecategorizationJob existing = jobs.get(userId);
+        if (existing != null && isActive(existing)) {
+            return snapshot(existing);
+        }
+
+        RecategorizationJob job = RecategorizationJob.builder()
+                .id(UUID.randomUUID())
+                .status(RecategorizationJob.Status.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build();
+        jobs.put(userId, job);
+        try {
+            executor.execute(() -> run(userId, job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(userId, job);
+            throw e;
+        }
+        return snapshot(job);
+    }
+
+    public Optional<RecategorizationJob> getJob(UUID userId, UUID jobId) {
+        return Optional.ofNullable(jobs.get(userId))
+                .filter(job -> job.getId().equals(jobId))
+                .map(this::snapshot);
+    }
+
+    private void run(UUID userId, RecategorizationJob job) {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(CorrelationId.MDC_KEY, job.getId().toString())) {
+            long totalRows = transactionRepository.countByUserId(userId);
+            update(job, j -> {
+                j.setStatus(RecategorizationJob.Status.RUNNING);
+                j.setStartedAt(LocalDateTime.now());
+                j.setTotalRows(totalRows);
+            });
+
+            RuleMatcher rules = categorizationRuleService.matcherFor(userId);
+            if (!rules.isEmpty()) {
+                applyRules(userId, rules, job);
+            }
+            finish(job, RecategorizationJob.Status.SUCCEEDED, null);
+        } catch (Exception e) {
+            log.warn("re-categorization failed job={} user={} error=\"{}\"", job.getId(), userId, e.getMessage());
+            finish(job, RecategorizationJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void applyRules(UUID userId, RuleMatcher rules, RecategorizationJob job) {
+        Set<LocalDate> touchedMonths = new HashSet<>();
+        try {
+            for (UUID accountId : accountRepository.findIdsByUserId(userId)) {
+                applyRules(accountId, rules, job, touchedMonths);
+            }
+        } finally {
+            // Chunks commit as they go, so what they moved is published even if a later one failed
+            spendingRollupService.refreshMonths(userId, touchedMonths);
+            // Every moved row touched a month, so this is "anything changed"
+            if (!touchedMonths.isEmpty()) {
+                dataVersionService.bump(userId);
+            }
+        }
+    }
+
+    private void applyRules(UUID accountId, RuleMatcher rules, RecategorizationJob job, Set<LocalDate> touchedMonths) {
+        UUID afterId = FIRST_ID;
+        List<CategorizationCandidate> chunk;
+        do {
+            chunk = transactionRepository.findCategorizationChunk(accountId, afterId, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            // Rows to move, grouped by the category they move to
+            Map<UUID, List<UUID>> moves = new HashMap<>();
+            Set<LocalDate> chunkMonths = new HashSet<>();
+            for (CategorizationCandidate row : chunk) {
+                UUID target = rules.match(row.description());
+                if (target != null && !target.equals(row.categoryId())) {
+                    moves.computeIfAbsent(target, id -> new ArrayList<>()).add(row.id());
+                    chunkMonths.add(row.date().withDayOfMonth(1));
+                }
+            }
+
+            int changed = moves.isEmpty() ? 0 : transactionTemplate.execute(status -> {
+                int updated = 0;
+                for (Map.Entry<UUID, List<UUID>> move : moves.entrySet()) {
+                    updated += transactionRepository.updateCategory(move.getValue(),
+                            categoryRepository.getReferenceById(move.getKey()));
+                }
+                return updated;
+            });
+            // Only once committed
+            touchedMonths.addAll(chunkMonths);
+
+            int scanned = chunk.size();
+            update(job, j -> {
+                j.setRowsScanned(j.getRowsScanned() + scanned);
+                j.setRowsChanged(j.getRowsChanged() + changed);
+            });
+            afterId = chunk.getLast().id();
+        } while (chunk.size() == chunkSize);
+    }
+
+    private void finish(RecategorizationJob job, RecategorizationJob.Status status, String error) {
+        update(job, j -> {
+            j.setStatus(status);
+            j.setError(error);
+            j.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    private static boolean isActive(RecategorizationJob job) {
+        synchronized (job) {
+            return job.getStatus() == RecategorizationJob.Status.QUEUED
+                    || job.getStatus() == RecategorizationJob.Status.RUNNING;
+        }
+    }
+
+    // Same discipline as sync jobs: the worker mutates and request threads read under the job's monitor
+    private void update(RecategorizationJob job, Consumer<RecategorizationJob> change) {
+        synchronized (job) {
+            change.accept(job);
+        }
+    }
+
+    private RecategorizationJob snapshot(RecategorizationJob job) {
+        synchronized (job) {
+            return job.toBuilder().build();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.model.CategorizationRule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A user's categorization rules compiled into one immutable matcher.
+ *
+ * Rules are ranked by priority (highest first, ties by keyword) and the best-ranked
+ * matching rule wins, whatever its match type. Each match type gets its own structure:
+ * EXACT a hash map, STARTS_WITH a trie, CONTAINS an Aho-Corasick automaton and REGEX
+ * precompiled patterns. Matching is case-insensitive. Only EXACT and REGEX allocate,
+ * and only when the user has rules of that type.
+ */
+public final class RuleMatcher {
+
+    public static final RuleMatcher EMPTY = compile(List.of());
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // Category of each rule, indexed by rank
+    private final UUID[] categoryIds;
+
+    private final Map<String, Integer> exact;
+    private final Automaton prefixes;
+    private final Automaton keywords;
+    private final Pattern[] patterns;
+    private final int[] patternRanks;
+
+    private RuleMatcher(UUID[] categoryIds, Map<String, Integer> exact, Automaton prefixes,
+                        Automaton keywords, Pattern[] patterns, int[] patternRanks) {
+        this.categoryIds = categoryIds;
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.keywords = keywords;
+        this.patterns = patterns;
+        this.patternRanks = patternRanks;
+    }
+
+    /**
+     * Compile rules into a matcher. Rules with a blank keyword or an invalid regex are skipped.
+     */
+    public static RuleMatcher compile(List<CategorizationRule> rules) {
+        List<CategorizationRule> ranked = new ArrayList<>(rules);
+        ranked.sort(Comparator.comparing((CategorizationRule r) -> r.getPriority() != null ? r.getPriority() : 0)
+                .reversed()
+                .thenComparing(CategorizationRule::getKeyword, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        UUID[] categoryIds = new UUID[ranked.size()];
+        Map<String, Integer> exact = new HashMap<>();
+        Automaton.Builder prefixes = new Automaton.Builder();
+        Automaton.Builder keywords = new Automaton.Builder();
+        List<Pattern> patterns = new ArrayList<>();
+        List<Integer> patternRanks = new ArrayList<>();
+
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            CategorizationRule rule = ranked.get(rank);
+            categoryIds[rank] = rule.getCategory().getId();
+
+            String keyword = rule.getKeyword();
+            if (keyword == null || keyword.isEmpty() || rule.getMatchType() == null) {
+                continue;
+            }
+
+            switch (rule.getMatchType()) {
+                // First (best-ranked) rule for a keyword wins
+                case EXACT -> exact.putIfAbsent(fold(keyword), rank);
+                case STARTS_WITH -> prefixes.add(keyword, rank);
+                case CONTAINS -> keywords.add(keyword, rank);
+                case REGEX -> {
+                    try {
+                        patterns.add(Pattern.compile(keyword, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+                        patternRanks.add(rank);
+                    } catch (PatternSyntaxException e) {
+                        // Rejected when the rule is saved; only reachable for rows written elsewhere
+                    }
+                }
+            }
+        }
+
+        return new RuleMatcher(categoryIds, exact, prefixes.build(false), keywords.build(true),
+                patterns.toArray(Pattern[]::new), patternRanks.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Category of the best-ranked rule matching the description, or null when none match.
+     */
+    public UUID match(String description) {
+        if (description == null || categoryIds.length == 0) {
+            return null;
+        }
+
+        int best = NO_MATCH;
+        if (!exact.isEmpty()) {
+            Integer rank = exact.get(fold(description));
+            if (rank != null) {
+                best = rank;
+            }
+        }
+        best = Math.min(best, prefixes.matchPrefix(description));
+        best = Math.min(best, keywords.matchAnywhere(description));
+
+        // Patterns are in rank order, so stop once none of the rest could beat the current best
+        for (int i = 0; i < patterns.length && patternRanks[i] < best; i++) {
+            if (patterns[i].matcher(description).find()) {
+                best = patternRanks[i];
+            }
+        }
+
+        return best == NO_MATCH ? null : categoryIds[best];
+    }
+
+    public boolean isEmpty() {
+        return categoryIds.length == 0;
+    }
+
+    private static String fold(String s) {
+        StringBuilder folded = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            folded.append(Character.toLowerCase(s.charAt(i)));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Character trie over case-folded keywords, stored as flat arrays. With failure links
+     * it is an Aho-Corasick automaton (CONTAINS); without, a plain prefix trie (STARTS_WITH).
+     */
+    private static final class Automaton {
+
+        // Children of node n are edgeChars/edgeTargets[edgeStart[n] .. edgeStart[n + 1]), sorted by char
+        private final int[] edgeStart;
+        private final char[] edgeChars;
+        private final int[] edgeTargets;
+        // Best rank of any keyword ending at the node (or, with failure links, at one of its suffixes)
+        private final int[] bestRank;
+        private final int[] fail;
+
+        private Automaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] bestRank, int[] fail) {
+            this.edgeStart = edgeStart;
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.bestRank = bestRank;
+            this.fail = fail;
+        }
+
+        int matchPrefix(String text) {
+            int best = NO_MATCH;
+            int node = 0;
+            for (int i = 0; i < text.length() && best > 0; i++) {
+                node = child(node, Character.toLowerCase(text.charAt(i)));
+                if (node < 0) {
+                    break;
+                }
+                best = Math.min(best, bestRank[node]);
+            }
+            return best;
+        }
+
+        int matchAnywhere(String text) {
+            int best = NO_MATCH;
+            if (edgeChars.length == 0) {
+                return best;
+            }
+            int node = 0;
+            for (int i = 0; i < text.length() && best > 0; i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                int next;
+                while ((next = child(node, c)) < 0 && node != 0) {
+                    node = fail[node];
+                }
+                node = Math.max(next, 0);
+                best = Math.min(best, bestRank[node]);
+            }
+            return best;
+        }
+
+        private int child(int node, char c) {
+            int from = edgeStart[node];
+            int to = edgeStart[node + 1];
+            if (from == to) {
+                return -1;
+            }
+            int i = Arrays.binarySearch(edgeChars, from, to, c);
+            return i >= 0 ? edgeTargets[i] : -1;
+        }
+
+        static final class Builder {
+            private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+            private final List<Integer> ranks = new ArrayList<>();
+
+            Builder() {
+                newNode();
+            }
+
+            void add(String keyword, int rank) {
+                int node = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = Character.toLowerCase(keyword.charAt(i));
+                    Integer next = children.get(node).get(c);
+                    if (next == null) {
+                        next = newNode();
+                        children.get(node).put(c, next);
+                    }
+                    node = next;
+                }
+                ranks.set(node, Math.min(ranks.get(node), rank));
+            }
+
+            Automaton build(boolean withFailureLinks) {
+                int nodes = children.size();
+                int[] edgeStart = new int[nodes + 1];
+                int edges = 0;
+                for (int n = 0; n < nodes; n++) {
+                    edgeStart[n] = edges;
+                    edges += children.get(n).size();
+                }
+                edgeStart[nodes] = edges;
+
+                char[] edgeChars = new char[edges];
+                int[] edgeTargets = new int[edges];
+                for (int n = 0; n < nodes; n++) {
+                    int e = edgeStart[n];
+                    for (Map.Entry<Character, Integer> edge : children.get(n).entrySet()) {
+                        edgeChars[e] = edge.getKey();
+                        edgeTargets[e] = edge.getValue();
+                        e++;
+                    }
+                }
+
+                int[] bestRank = ranks.stream().mapToInt(Integer::intValue).toArray();
+                int[] fail = new int[nodes];
+                if (withFailureLinks) {
+                    linkFailures(fail, bestRank);
+                }
+                return new Automaton(edgeStart, edgeChars, edgeTargets, bestRank, fail);
+            }
+
+            // Breadth-first, so a node's failure target is final before its children need it
+            private void linkFailures(int[] fail, int[] bestRank) {
+                Queue<Integer> queue = new ArrayDeque<>(children.get(0).values());
+                while (!queue.isEmpty()) {
+                    int node = queue.poll();
+                    for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                        int child = edge.getValue();
+                        int f = fail[node];
+                        Integer target;
+                        while ((target = children.get(f).get(edge.getKey())) == null && f != 0) {
+                            f = fail[f];
+                        }
+                        fail[child] = target != null && target != child ? target : 0;
+                        // A keyword ending at the failure target also ends here
+                        bestRank[child] = Math.min(bestRank[child], bestRank[fail[child]]);
+                        queue.add(child);
+                    }
+                }
+            }
+
+            private int newNode() {
+                children.add(new TreeMap<>());
+                ranks.add(NO_MATCH);
+                return children.size() - 1;
+            }
+        }
+    }
+}
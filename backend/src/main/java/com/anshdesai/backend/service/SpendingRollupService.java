@@ -0,0 +1,83 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.payload.SpendingSummary;
+import com.anshdesai.backend.repository.SpendingRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains and reads the monthly spending_rollup table, so spending charts cost a handful
+ * of rollup rows instead of a scan of the user's whole transaction history.
+ */
+@Service
+@RequiredArgsConstructor
+public class SpendingRollupService {
+
+    // Bounds used when the caller leaves either end of the range open
+    private static final LocalDate EARLIEST_MONTH = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST_MONTH = LocalDate.of(9999, 12, 1);
+
+    private final SpendingRollupRepository spendingRollupRepository;
+
+    /**
+     * Rebuild the rollup for every month containing one of the given dates.
+     * Call this in the same transaction that inserted, updated or deleted the transactions.
+     */
+    @Transactional
+    public void refreshMonths(UUID userId, Collection<LocalDate> dates) {
+        TreeSet<LocalDate> months = dates.stream()
+                .filter(Objects::nonNull)
+                .map(date -> date.withDayOfMonth(1))
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (months.isEmpty()) {
+            return;
+        }
+
+        // Two refreshes of the same month must not interleave: under READ COMMITTED the second
+        // DELETE misses the first one's uncommitted rows and the month would be counted twice
+        spendingRollupRepository.lockUser(userId);
+        spendingRollupRepository.deleteMonths(userId, months);
+        spendingRollupRepository.insertMonths(userId, months, months.first(), months.last().plusMonths(1));
+    }
+
+    @Transactional(readOnly = true)
+    public SpendingSummary getSummary(UUID userId, LocalDate from, LocalDate to) {
+        LocalDate fromMonth = from != null ? from.withDayOfMonth(1) : EARLIEST_MONTH;
+        LocalDate toMonth = to != null ? to.withDayOfMonth(1) : LATEST_MONTH;
+
+        List<SpendingSummary.MonthTotal> byMonth = spendingRollupRepository.sumByMonth(userId, fromMonth, toMonth).stream()
+                .map(row -> new SpendingSummary.MonthTotal(row.getMonth(), row.getTotal(), row.getTransactionCount()))
+                .toList();
+        List<SpendingSummary.CategoryTotal> byCategory = spendingRollupRepository.sumByCategory(userId, fromMonth, toMonth).stream()
+                .map(row -> new SpendingSummary.CategoryTotal(row.getCategoryId(), row.getName(), row.getColorHex(),
+                        row.getTotal(), row.getTransactionCount()))
+                .toList();
+        List<SpendingSummary.AccountTotal> byAccount = spendingRollupRepository.sumByAccount(userId, fromMonth, toMonth).stream()
+                .map(row -> new SpendingSummary.AccountTotal(row.getAccountId(), row.getName(), row.getTotal(),
+                        row.getTransactionCount()))
+                .toList();
+
+        BigDecimal total = byMonth.stream()
+                .map(SpendingSummary.MonthTotal::getTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return SpendingSummary.builder()
+                .fromMonth(from != null ? fromMonth : null)
+                .toMonth(to != null ? toMonth : null)
+                .total(total)
+                .byCategory(byCategory)
+                .byMonth(byMonth)
+                .byAccount(byAccount)
+                .build();
+    }
+}
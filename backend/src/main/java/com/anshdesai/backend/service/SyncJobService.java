@@ -0,0 +1,196 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.CorrelationId;
+import com.anshdesai.backend.model.SyncJob;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.SyncJobRepository;
+import com.anshdesai.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs user syncs as background jobs on a bounded in-process queue.
+ * A user has at most one queued or running job; further requests join it.
+ * Jobs are recorded in sync_jobs so unfinished ones are picked up again after a restart.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncJobService {
+
+    private final SyncJobRepository syncJobRepository;
+    private final UserRepository userRepository;
+    private final TransactionSyncService transactionSyncService;
+
+    @Value("${sync.jobs.workers:4}")
+    private int workers;
+
+    @Value("${sync.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    // Queued or running jobs keyed by user id. Live progress is read from here;
+    // once a job finishes it is only available from the database.
+    private final Map<UUID, SyncJob> activeJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startWorkers() {
+        // AbortPolicy: when the queue is full, enqueue fails fast instead of piling up work
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        // Unfinished jobs stay QUEUED/RUNNING in the table and are resumed on next startup
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a sync for the user, or return the job already queued or running for them.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public synchronized SyncJob enqueue(UUID userId) {
+        SyncJob existing = activeJobs.get(userId);
+        if (existing != null) {
+            return snapshot(existing);
+        }
+
+        SyncJob job = syncJobRepository.save(SyncJob.builder()
+                .userId(userId)
+                .status(SyncJob.Status.QUEUED)
+                .build());
+        submit(job);
+        // Ties the request's correlation id to the job's, which the sync logs under
+        log.info("sync queued job={} user={}", job.getId(), userId);
+        return snapshot(job);
+    }
+
+    public Optional<SyncJob> getJob(UUID userId, UUID jobId) {
+        SyncJob active = activeJobs.get(userId);
+        if (active != null && active.getId().equals(jobId)) {
+            return Optional.of(snapshot(active));
+        }
+        return syncJobRepository.findByIdAndUserId(jobId, userId);
+    }
+
+    /**
+     * Re-queue jobs that were still queued or running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resumeUnfinishedJobs() {
+        List<SyncJob> unfinished = syncJobRepository.findByStatusInOrderByCreatedAt(
+                List.of(SyncJob.Status.QUEUED, SyncJob.Status.RUNNING));
+
+        for (SyncJob job : unfinished) {
+            if (activeJobs.containsKey(job.getUserId())) {
+                // An older job for the same user is already queued; this one would be a duplicate
+                finish(job, SyncJob.Status.FAILED, "Superseded by an earlier queued sync");
+                continue;
+            }
+            job.setStatus(SyncJob.Status.QUEUED);
+            job.setStartedAt(null);
+            try {
+                submit(job);
+            } catch (RejectedExecutionException e) {
+                // submit() already marked it failed
+            }
+        }
+    }
+
+    private void submit(SyncJob job) {
+        activeJobs.put(job.getUserId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getUserId(), job);
+            finish(job, SyncJob.Status.FAILED, "Sync queue is full");
+            throw e;
+        }
+    }
+
+    private void run(SyncJob job) {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(CorrelationId.MDC_KEY, job.getId().toString())) {
+            update(job, j -> {
+                j.setStatus(SyncJob.Status.RUNNING);
+                j.setStartedAt(LocalDateTime.now());
+            });
+            syncJobRepository.save(snapshot(job));
+
+            User user = userRepository.findById(job.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            transactionSyncService.syncTransactions(user, new SyncProgressListener() {
+                @Override
+                public void onItemsFound(int itemCount) {
+                    update(job, j -> j.setItemsTotal(itemCount));
+                }
+
+                @Override
+                public void onItemSynced(UUID plaidItemId, int transactionsAdded) {
+                    update(job, j -> {
+                        j.setItemsSynced(j.getItemsSynced() + 1);
+                        j.setTransactionsAdded(j.getTransactionsAdded() + transactionsAdded);
+                    });
+                }
+
+                @Override
+                public void onItemFailed(UUID plaidItemId, int transactionsAdded, String error) {
+                    update(job, j -> {
+                        j.setItemsFailed(j.getItemsFailed() + 1);
+                        j.setTransactionsAdded(j.getTransactionsAdded() + transactionsAdded);
+                    });
+                }
+            });
+
+            finish(job, SyncJob.Status.SUCCEEDED, null);
+        } catch (Exception e) {
+            finish(job, SyncJob.Status.FAILED, e.getMessage());
+        } finally {
+            activeJobs.remove(job.getUserId(), job);
+        }
+    }
+
+    private void finish(SyncJob job, SyncJob.Status status, String error) {
+        update(job, j -> {
+            j.setStatus(status);
+            j.setError(error);
+            j.setFinishedAt(LocalDateTime.now());
+        });
+        syncJobRepository.save(snapshot(job));
+    }
+
+    // Live jobs are mutated by their worker and read by request threads, so both go through the job's monitor
+    private void update(SyncJob job, Consumer<SyncJob> change) {
+        synchronized (job) {
+            change.accept(job);
+        }
+    }
+
+    private SyncJob snapshot(SyncJob job) {
+        synchronized (job) {
+            return job.toBuilder().build();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.StatementCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics and the one log line per synced item. While an item's delta is applied the sync
+ * fills in an {@link ItemStats}; {@link #itemSynced} then publishes it:
+ * <ul>
+ *   <li>sync.item.duration{stage=fetch|apply}: Plaid paging vs. persistence time per item</li>
+ *   <li>sync.items{outcome=success|failure}</li>
+ *   <li>sync.transactions{result=inserted|duplicate|unknown_account|modified|removed}</li>
+ *   <li>sync.categorization{source=rule|plaid|created|none}: how new transactions got their category</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SyncMetrics {
+
+    private final StatementCounter statementCounter;
+
+    private final Timer fetchDuration;
+    private final Timer applyDuration;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter inserted;
+    private final Counter duplicates;
+    private final Counter unknownAccount;
+    private final Counter modified;
+    private final Counter removed;
+    private final Counter ruleHits;
+    private final Counter plaidHits;
+    private final Counter created;
+    private final Counter uncategorized;
+
+    public SyncMetrics(MeterRegistry meterRegistry, StatementCounter statementCounter) {
+        this.statementCounter = statementCounter;
+        this.fetchDuration = itemDuration(meterRegistry, "fetch");
+        this.applyDuration = itemDuration(meterRegistry, "apply");
+        this.succeeded = counter(meterRegistry, "sync.items", "outcome", "success");
+        this.failed = counter(meterRegistry, "sync.items", "outcome", "failure");
+        this.inserted = counter(meterRegistry, "sync.transactions", "result", "inserted");
+        this.duplicates = counter(meterRegistry, "sync.transactions", "result", "duplicate");
+        this.unknownAccount = counter(meterRegistry, "sync.transactions", "result", "unknown_account");
+        this.modified = counter(meterRegistry, "sync.transactions", "result", "modified");
+        this.removed = counter(meterRegistry, "sync.transactions", "result", "removed");
+        this.ruleHits = counter(meterRegistry, "sync.categorization", "source", "rule");
+        this.plaidHits = counter(meterRegistry, "sync.categorization", "source", "plaid");
+        this.created = counter(meterRegistry, "sync.categorization", "source", "created");
+        this.uncategorized = counter(meterRegistry, "sync.categorization", "source", "none");
+    }
+
+    /**
+     * Counters for one item, filled in on the thread that applies its delta.
+     */
+    public static final class ItemStats {
+        private final long startNanos = System.nanoTime();
+        private final long statementsBefore;
+        int inserted;
+        int duplicates;
+        int unknownAccount;
+        int modified;
+        int removed;
+        int ruleHits;
+        int plaidHits;
+        int created;
+        int uncategorized;
+        // Inserts of the pages committed so far; inserted also counts a page still being written
+        int committedInserts;
+
+        private ItemStats(long statementsBefore) {
+            this.statementsBefore = statementsBefore;
+        }
+
+        // Rows changed so far that alter the item's transaction listing
+        int changes() {
+            return inserted + modified + removed;
+        }
+    }
+
+    public void recordFetch(long nanos) {
+        fetchDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public ItemStats startApply() {
+        return new ItemStats(statementCounter.count());
+    }
+
+    public void itemSynced(UUID plaidItemId, int pages, long fetchNanos, ItemStats stats) {
+        long applyNanos = System.nanoTime() - stats.startNanos;
+        applyDuration.record(applyNanos, TimeUnit.NANOSECONDS);
+        succeeded.increment();
+        inserted.increment(stats.inserted);
+        duplicates.increment(stats.duplicates);
+        unknownAccount.increment(stats.unknownAccount);
+        modified.increment(stats.modified);
+        removed.increment(stats.removed);
+        ruleHits.increment(stats.ruleHits);
+        plaidHits.increment(stats.plaidHits);
+        created.increment(stats.created);
+        uncategorized.increment(stats.uncategorized);
+
+        log.info("sync item={} outcome=success pages={} fetchMs={} applyMs={} statements={} inserted={} duplicates={}"
+                        + " unknownAccount={} modified={} removed={} ruleHits={} plaidHits={} created={} uncategorized={}",
+                plaidItemId, pages, TimeUnit.NANOSECONDS.toMillis(fetchNanos), TimeUnit.NANOSECONDS.toMillis(applyNanos),
+                statementCounter.count() - stats.statementsBefore, stats.inserted, stats.duplicates,
+                stats.unknownAccount, stats.modified, stats.removed, stats.ruleHits, stats.plaidHits,
+                stats.created, stats.uncategorized);
+    }
+
+    public void itemFailed(UUID plaidItemId, Throwable cause) {
+        failed.increment();
+        log.warn("sync item={} outcome=failure error=\"{}\"", plaidItemId, cause.getMessage());
+    }
+
+    private static Timer itemDuration(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("sync.item.duration")
+                .description("Time to sync one Plaid item, by stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String tag, String value) {
+        return Counter.builder(name).tag(tag, value).register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.anshdesai.backend.service;
+
+import java.util.UUID;
+
+/**
+ * Callbacks from TransactionSyncService as a sync works through a user's Plaid items.
+ * Invoked on the syncing thread.
+ */
+public interface SyncProgressListener {
+
+    SyncProgressListener NONE = new SyncProgressListener() {
+    };
+
+    default void onItemsFound(int itemCount) {
+    }
+
+    default void onItemSynced(UUID plaidItemId, int transactionsAdded) {
+    }
+
+    // transactionsAdded: rows from the pages the item committed before it failed
+    default void onItemFailed(UUID plaidItemId, int transactionsAdded, String error) {
+    }
+}
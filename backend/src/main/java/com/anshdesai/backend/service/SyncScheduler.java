@@ -0,0 +1,139 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.CorrelationId;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps ACTIVE Plaid items fresh without waiting for users to press sync.
+ * Each tick picks the stalest due items, interleaves them across users so no single user
+ * hogs a batch; every Plaid call a sync makes is paced by the shared token bucket in
+ * PlaidFetchExecutor. Successful items are
+ * rescheduled one jittered interval out; failing items back off exponentially.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncScheduler {
+
+    private final PlaidItemRepository plaidItemRepository;
+    private final TransactionSyncService transactionSyncService;
+
+    @Value("${sync.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sync.scheduler.interval-minutes:360}")
+    private long intervalMinutes;
+
+    @Value("${sync.scheduler.batch-size:200}")
+    private int batchSize;
+
+    @Value("${sync.scheduler.base-backoff-minutes:5}")
+    private long baseBackoffMinutes;
+
+    @Value("${sync.scheduler.max-backoff-minutes:1440}")
+    private long maxBackoffMinutes;
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Scheduled(initialDelayString = "${sync.scheduler.initial-delay-ms:60000}",
+               fixedDelayString = "${sync.scheduler.tick-ms:60000}")
+    public void syncDueItems() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PlaidItemRepository.DueItem> dueItems = plaidItemRepository.findDueForSync(
+                now, now.minusMinutes(intervalMinutes), PageRequest.of(0, batchSize));
+
+        List<Future<?>> running = new ArrayList<>();
+        for (PlaidItemRepository.DueItem item : interleaveByUser(dueItems)) {
+            running.add(workers.submit(() -> syncItem(item)));
+        }
+
+        // Finish this batch before the next tick so batches never overlap
+        for (Future<?> result : running) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                // syncItem records its own failures
+            }
+        }
+    }
+
+    /**
+     * Sync one item and reschedule it. Also runs webhook-triggered syncs (see PlaidWebhookService).
+     * TransactionSyncService keeps an item's syncs from overlapping, whichever path started them.
+     */
+    void syncItem(PlaidItemRepository.DueItem item) {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(CorrelationId.MDC_KEY, CorrelationId.generate())) {
+            transactionSyncService.syncItem(item.getId());
+            plaidItemRepository.updateSyncSchedule(item.getId(), 0,
+                    LocalDateTime.now().plus(jitter(Duration.ofMinutes(intervalMinutes))));
+        } catch (Exception e) {
+            int failures = item.getSyncFailures() + 1;
+            plaidItemRepository.updateSyncSchedule(item.getId(), failures,
+                    LocalDateTime.now().plus(jitter(backoff(failures))));
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("scheduled sync failed item={} attempt={} error=\"{}\"", item.getId(), failures, cause.getMessage());
+        }
+    }
+
+    /**
+     * Round-robin across users while keeping each user's items in staleness order.
+     */
+    static List<PlaidItemRepository.DueItem> interleaveByUser(List<PlaidItemRepository.DueItem> items) {
+        Map<UUID, Deque<PlaidItemRepository.DueItem>> byUser = new LinkedHashMap<>();
+        for (PlaidItemRepository.DueItem item : items) {
+            byUser.computeIfAbsent(item.getUserId(), id -> new ArrayDeque<>()).add(item);
+        }
+
+        List<PlaidItemRepository.DueItem> ordered = new ArrayList<>(items.size());
+        while (!byUser.isEmpty()) {
+            byUser.values().removeIf(queue -> {
+                ordered.add(queue.poll());
+                return queue.isEmpty();
+            });
+        }
+        return ordered;
+    }
+
+    private Duration backoff(int failures) {
+        long minutes = baseBackoffMinutes << Math.min(failures - 1, 20);
+        return Duration.ofMinutes(Math.min(minutes, maxBackoffMinutes));
+    }
+
+    // +/- 20% so items linked at the same time drift apart instead of syncing in bursts
+    private Duration jitter(Duration duration) {
+        double factor = ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+        return Duration.ofMillis((long) (duration.toMillis() * factor));
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.payload.TransactionExportFormat;
+import com.anshdesai.backend.payload.TransactionView;
+import com.anshdesai.backend.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole transaction history, newest first, straight to an output stream.
+ * Rows come from a database cursor and are written as they arrive, so memory use does not
+ * depend on how much history there is.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    static final String CSV_HEADER = "date,amount,description,category,account,plaid_category,"
+            + "plaid_detailed_category,id,plaid_transaction_id";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final JsonMapper jsonMapper;
+
+    // The transaction keeps the cursor open while the stream is read
+    @Transactional(readOnly = true)
+    public void export(UUID userId, TransactionExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TransactionView> rows = transactionRepository.streamViewsByUserId(userId)) {
+            switch (format) {
+                case NDJSON -> writeNdjson(rows, out);
+                case CSV -> writeCsv(rows, out);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Stream<TransactionView> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = jsonMapper.writerFor(TransactionView.class);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        rows.forEach(view -> {
+            try {
+                buffered.write(writer.writeValueAsBytes(view));
+                buffered.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        buffered.flush();
+    }
+
+    private void writeCsv(Stream<TransactionView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        rows.forEach(view -> {
+            try {
+                writer.write(csvRow(view));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    static String csvRow(TransactionView view) {
+        StringBuilder row = new StringBuilder(160);
+        row.append(view.getDate()).append(',')
+                .append(view.getAmount().toPlainString()).append(',');
+        appendText(row, view.getDescription()).append(',');
+        appendText(row, view.getCategory() != null ? view.getCategory().getName() : null).append(',');
+        appendText(row, view.getAccount().getName()).append(',');
+        appendText(row, view.getPlaidCategory()).append(',');
+        appendText(row, view.getPlaidDetailedCategory()).append(',');
+        row.append(view.getId()).append(',');
+        appendText(row, view.getPlaidTransactionId());
+        return row.append("\r\n").toString();
+    }
+
+    // RFC 4180 quoting; text that a spreadsheet would run as a formula gets a leading quote.
+    // Tab and CR count too: spreadsheets strip them and read a formula from what follows (OWASP)
+    private static StringBuilder appendText(StringBuilder row, String value) {
+        if (value == null || value.isEmpty()) {
+            return row;
+        }
+        String text = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return row.append(text);
+        }
+        return row.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
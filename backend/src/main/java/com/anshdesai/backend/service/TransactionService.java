@@ -3,13 +3,23 @@ package com.anshdesai.backend.service;
 import com.anshdesai.backend.model.Category;
 import com.anshdesai.backend.model.Transaction;
 import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.TransactionFilter;
+import com.anshdesai.backend.payload.TransactionPage;
+import com.anshdesai.backend.payload.TransactionView;
 import com.anshdesai.backend.repository.CategoryRepository;
 import com.anshdesai.backend.repository.TransactionRepository;
+import com.anshdesai.backend.repository.TransactionSpecifications;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -18,9 +28,16 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
+    private final SpendingRollupService spendingRollupService;
+    private final DataVersionService dataVersionService;
+
+    @Transactional(readOnly = true)
+    public List<TransactionView> getTransactions(User user) {
+        return transactionRepository.findViewsByUserId(user.getId());
+    }
 
     @Transactional
-    public Transaction updateTransaction(User user, UUID transactionId, UpdateTransactionRequest request) {
+    public TransactionView updateTransaction(User user, UUID transactionId, UpdateTransactionRequest request) {
         // Find transaction
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -48,7 +65,73 @@ public class TransactionService {
             transaction.setCategory(category);
         }
 
-        return transactionRepository.save(transaction);
+        // Flushed now so the row is locked before the users row that bump() updates, the same order sync uses
+        Transaction saved = transactionRepository.saveAndFlush(transaction);
+
+        // Re-categorizing moves spending between rollup buckets
+        if (request.getCategoryId() != null) {
+            spendingRollupService.refreshMonths(user.getId(), List.of(saved.getDate()));
+        }
+        dataVersionService.bump(user.getId());
+
+        return TransactionView.from(saved);
+    }
+
+    /**
+     * One page of the user's transactions, newest first, using a (date, id) keyset cursor.
+     * With an accountId filter a page is a short range scan of the (account_id, date, id) index,
+     * whatever its depth. Without one, the user's accounts are merged and sorted: transactions
+     * carry no user_id to index on, so that cost grows with the rows left after the cursor.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage<TransactionView> getTransactionPage(User user, TransactionFilter filter, String cursor, int limit) {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.matches(filter));
+        if (cursor != null && !cursor.isEmpty()) {
+            Keyset keyset = Keyset.decode(cursor);
+            spec = spec.and(TransactionSpecifications.after(keyset.date(), keyset.id()));
+        }
+
+        // Fetch one extra row to know whether there is another page.
+        // project() loads category and account in the same query via a fetch graph.
+        List<Transaction> rows = transactionRepository.findBy(spec, query -> query
+                .project("category", "account")
+                .sortBy(Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")))
+                .limit(limit + 1)
+                .all());
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Transaction last = rows.get(limit - 1);
+            nextCursor = new Keyset(last.getDate(), last.getId()).encode();
+        }
+
+        return TransactionPage.<TransactionView>builder()
+                .items(rows.stream().map(TransactionView::from).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Position of the last row on a page, passed to clients as an opaque string.
+     */
+    record Keyset(LocalDate date, UUID id) {
+
+        String encode() {
+            String raw = date + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Keyset decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Keyset(LocalDate.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
     }
 
     @Data
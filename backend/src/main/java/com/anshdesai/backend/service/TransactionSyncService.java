@@ -1,5 +1,6 @@
 package com.anshdesai.backend.service;
 
+import com.anshdesai.backend.config.CorrelationId;
 import com.anshdesai.backend.model.Account;
 import com.anshdesai.backend.model.Category;
 import com.anshdesai.backend.model.PlaidItem;
@@ -9,20 +10,44 @@ import com.anshdesai.backend.repository.AccountRepository;
 import com.anshdesai.backend.repository.CategoryRepository;
 import com.anshdesai.backend.repository.PlaidItemRepository;
 import com.anshdesai.backend.repository.TransactionRepository;
-import com.plaid.client.model.TransactionsGetResponse;
-import com.plaid.client.model.TransactionsGetRequestOptions;
+import com.plaid.client.model.TransactionsSyncResponse;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Incremental sync of Plaid items as a three-stage pipeline per item: a fetch stage pages
+ * through /transactions/sync, a mapping stage turns each page into entities, and a persistence
+ * stage writes pages in short transactions. Fetch and mapping run on the item's own virtual
+ * thread and hand pages over through a bounded queue, so fetching the next pages overlaps with
+ * storing the current one and a database connection is only held while a page is written.
+ */
 @Service
 @RequiredArgsConstructor
 public class TransactionSyncService {
@@ -32,189 +57,691 @@ public class TransactionSyncService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
+    private final PlaidFetchExecutor plaidFetchExecutor;
+    private final SpendingRollupService spendingRollupService;
+    private final CategorizationRuleService categorizationRuleService;
+    private final SyncMetrics syncMetrics;
+    private final DataVersionService dataVersionService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Mapped pages an item's fetcher may run ahead of the persistence stage
+    private static final int QUEUED_PAGES = 4;
+
+    // Times one sync starts its pagination over after TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION
+    private static final int MAX_PAGINATION_RESTARTS = 3;
+
+    private final ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Items being synced -> whether another sync of the item was asked for meanwhile
+    private final Map<UUID, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    // Plaid category code -> display name ("FOOD_AND_DRINK" -> "Food And Drink")
+    private static final int MAX_DISPLAY_NAMES = 1_024;
+    private static final Map<String, String> DISPLAY_NAMES = new ConcurrentHashMap<>();
 
-    @Transactional
     public int syncTransactions(User user) {
+        return syncTransactions(user, SyncProgressListener.NONE);
+    }
+
+    /**
+     * Not transactional: no connection is held while waiting on Plaid. Each page is
+     * written in a short transaction of its own, see {@link #applyPages}.
+     */
+    public int syncTransactions(User user, SyncProgressListener progress) {
         // Find all PlaidItems for the user
         List<PlaidItem> plaidItems = plaidItemRepository.findByUser(user);
+        progress.onItemsFound(plaidItems.size());
 
+        // Fetch stage: start paging every item at once, so the user waits about as long as
+        // the slowest bank instead of the sum of all of them. An item a background sync is
+        // already on is left to it; that sync makes one more pass for this request
+        List<PageStream> streams = new ArrayList<>(plaidItems.size());
+        for (PlaidItem plaidItem : plaidItems) {
+            if (claim(plaidItem.getId())) {
+                streams.add(startFetch(plaidItem));
+            } else {
+                progress.onItemSynced(plaidItem.getId(), 0);
+            }
+        }
+
+        // Persistence stage: drain the items one at a time on this thread while the rest keep fetching
         int totalSaved = 0;
+        int drained = 0;
+        try {
+            for (PageStream stream : streams) {
+                PlaidItem plaidItem = stream.plaidItem();
+                SyncMetrics.ItemStats stats = syncMetrics.startApply();
+                try {
+                    applyPages(user, stream, stats);
+                    totalSaved += stats.inserted;
+                    progress.onItemSynced(plaidItem.getId(), stats.inserted);
+                } catch (InterruptedException e) {
+                    // Shutting down: items not finished keep the cursor they started from
+                    Thread.currentThread().interrupt();
+                    totalSaved += stats.committedInserts;
+                    break;
+                } catch (Exception e) {
+                    // Record the failure but continue with other items; the pages it committed stay
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    syncMetrics.itemFailed(plaidItem.getId(), cause);
+                    totalSaved += stats.committedInserts;
+                    progress.onItemFailed(plaidItem.getId(), stats.committedInserts, cause.getMessage());
+                }
+                drained++;
+                try {
+                    totalSaved += release(plaidItem.getId());
+                } catch (RuntimeException e) {
+                    // A pass asked for by a webhook or the scheduler; counted by syncItemOnce, and
+                    // the scheduler retries the item
+                }
+            }
+        } finally {
+            // Stops fetchers of items that failed or were never drained
+            streams.forEach(stream -> stream.fetcher().cancel(true));
+            streams.subList(drained, streams.size()).forEach(stream -> inFlight.remove(stream.plaidItem().getId()));
+        }
+        return totalSaved;
+    }
 
-        // Calculate date range (last 30 days)
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(30);
+    /**
+     * Incremental sync of a single item, used by background syncs.
+     * Returns the number of transactions inserted; 0 straight away if the item is already
+     * being synced, in which case that sync makes one more pass once it is done.
+     */
+    public int syncItem(UUID plaidItemId) {
+        if (!claim(plaidItemId)) {
+            return 0;
+        }
+        int inserted;
+        try {
+            inserted = syncItemOnce(plaidItemId);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(plaidItemId);
+            throw e;
+        }
+        return inserted + release(plaidItemId);
+    }
 
-        // For each PlaidItem, fetch and save transactions
-        for (PlaidItem plaidItem : plaidItems) {
-            try {
-                // Create options to include personal finance categories
-                TransactionsGetRequestOptions options = new TransactionsGetRequestOptions()
-                        .includePersonalFinanceCategory(true);
-
-                // Get transactions from Plaid
-                TransactionsGetResponse response = plaidService.getTransactions(
-                        plaidItem.getAccessToken(),
-                        startDate,
-                        endDate,
-                        options
-                );
-
-                if (response == null) {
-                    continue;
-                }
+    /**
+     * Take ownership of an item's sync, or, if another sync owns it, ask that one for another
+     * pass. Two syncs of an item must not overlap: both would page from the same stored cursor.
+     */
+    private boolean claim(UUID plaidItemId) {
+        return !inFlight.compute(plaidItemId, (key, rerun) -> rerun != null);
+    }
 
-                // Step A: Extract accounts list from response
-                if (response.getAccounts() != null) {
-                    for (com.plaid.client.model.AccountBase plaidAccount : response.getAccounts()) {
-                        createOrUpdateAccount(plaidItem, plaidAccount);
+    /**
+     * Give up ownership of an item, after first making the one extra pass that any syncs
+     * asked for while it was held add up to. Returns the transactions those passes inserted.
+     */
+    private int release(UUID plaidItemId) {
+        int inserted = 0;
+        try {
+            while (inFlight.compute(plaidItemId, (key, rerun) -> rerun ? Boolean.FALSE : null) != null) {
+                inserted += syncItemOnce(plaidItemId);
+            }
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(plaidItemId);
+            throw e;
+        }
+        return inserted;
+    }
+
+    private int syncItemOnce(UUID plaidItemId) {
+        // With its user: the item is used outside any session from here on
+        PlaidItem plaidItem = plaidItemRepository.findWithUserById(plaidItemId)
+                .orElseThrow(() -> new RuntimeException("PlaidItem not found"));
+
+        PageStream stream = startFetch(plaidItem);
+        try {
+            SyncMetrics.ItemStats stats = syncMetrics.startApply();
+            applyPages(plaidItem.getUser(), stream, stats);
+            return stats.inserted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sync interrupted", e);
+        } catch (RuntimeException e) {
+            syncMetrics.itemFailed(plaidItemId, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } finally {
+            stream.fetcher().cancel(true);
+        }
+    }
+
+    /**
+     * One /transactions/sync page on its way from the fetch stage to the persistence stage,
+     * already mapped. The page with {@code last} set, or one carrying an error, ends the stream.
+     */
+    private record SyncPage(List<com.plaid.client.model.AccountBase> accounts,
+                            List<MappedTransaction> added,
+                            List<MappedTransaction> modified,
+                            List<String> removed,
+                            String nextCursor,
+                            boolean last,
+                            long fetchNanos,
+                            Throwable error) {
+
+        static SyncPage failed(Throwable error) {
+            return new SyncPage(List.of(), List.of(), List.of(), List.of(), null, true, 0, error);
+        }
+    }
+
+    /**
+     * A Plaid transaction mapped to our entity, before it is linked to its account
+     */
+    private record MappedTransaction(String plaidAccountId, Transaction transaction) {
+    }
+
+    private record PageStream(PlaidItem plaidItem, BlockingQueue<SyncPage> pages, Future<?> fetcher) {
+    }
+
+    /**
+     * Fetch and mapping stages of an item's sync, on a virtual thread of their own: pages through
+     * /transactions/sync from the stored cursor and hands each mapped page over through a bounded
+     * queue. When the persistence stage falls behind, the fetcher blocks on the full queue, so at
+     * most {@link #QUEUED_PAGES} pages per item are held in memory.
+     */
+    private PageStream startFetch(PlaidItem plaidItem) {
+        BlockingQueue<SyncPage> pages = new ArrayBlockingQueue<>(QUEUED_PAGES);
+        String accessToken = plaidItem.getAccessToken();
+        String cursor = plaidItem.getTransactionsCursor();
+        Future<?> fetcher = fetchers.submit(CorrelationId.propagate(() -> {
+            fetchPages(plaidItem, accessToken, cursor, pages);
+            return null;
+        }));
+        return new PageStream(plaidItem, pages, fetcher);
+    }
+
+    private void fetchPages(PlaidItem plaidItem, String accessToken, String startCursor, BlockingQueue<SyncPage> pages)
+            throws InterruptedException {
+        long fetchNanos = 0;
+        int restarts = 0;
+        String cursor = startCursor;
+        boolean ended = false;
+        try {
+            String institution = plaidService.institutionKey(plaidItem);
+            while (!ended) {
+                long start = System.nanoTime();
+                String pageCursor = cursor;
+                SyncPage page;
+                try {
+                    TransactionsSyncResponse response = plaidFetchExecutor.submit(institution,
+                            () -> plaidService.syncTransactions(accessToken, pageCursor)).join();
+                    long pageNanos = System.nanoTime() - start;
+                    fetchNanos += pageNanos;
+                    cursor = response.getNextCursor();
+                    page = mapPage(response, pageNanos);
+                } catch (Throwable e) {
+                    if (isMutationDuringPagination(e) && restarts < MAX_PAGINATION_RESTARTS) {
+                        // The item changed under us: Plaid wants the whole loop again from where it started
+                        restarts++;
+                        cursor = startCursor;
+                        continue;
                     }
+                    page = SyncPage.failed(e);
                 }
+                pages.put(page);
+                ended = page.last();
+                if (page.error() != null) {
+                    return;
+                }
+            }
+            syncMetrics.recordFetch(fetchNanos);
+        } finally {
+            if (!ended) {
+                // Interrupted or cancelled mid-stream; end it anyway rather than leave the persistence stage waiting
+                pages.offer(SyncPage.failed(new RuntimeException("Sync fetch stopped before the last page")));
+            }
+        }
+    }
 
-                // Get all accounts for this PlaidItem and create a map by plaid_account_id
-                List<Account> accounts = accountRepository.findByPlaidItem(plaidItem);
+    private static boolean isMutationDuringPagination(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof PlaidApiException plaidError
+                && "TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION".equals(plaidError.getErrorCode());
+    }
 
-                Map<String, Account> accountMap = accounts.stream()
-                        .collect(Collectors.toMap(Account::getPlaidAccountId, acc -> acc));
+    // Mapping stage: plain objects in, entities out, no database access
+    private static SyncPage mapPage(TransactionsSyncResponse response, long fetchNanos) {
+        List<String> removed = new ArrayList<>();
+        if (response.getRemoved() != null) {
+            response.getRemoved().forEach(r -> removed.add(r.getTransactionId()));
+        }
+        return new SyncPage(
+                response.getAccounts() != null ? response.getAccounts() : List.of(),
+                response.getAdded() != null ? mapTransactions(response.getAdded()) : List.of(),
+                response.getModified() != null ? mapTransactions(response.getModified()) : List.of(),
+                removed,
+                response.getNextCursor(),
+                !Boolean.TRUE.equals(response.getHasMore()),
+                fetchNanos,
+                null);
+    }
 
-                // Step C: Process transactions (existing logic)
-                if (response.getTransactions() == null) {
-                    continue;
+    /**
+     * Persistence stage of an item's sync: takes pages off the queue as they arrive and writes
+     * each in its own transaction. The cursor only advances with the last page, so a failure
+     * keeps the rows already committed but leaves the item at the cursor this pagination
+     * started from; the next sync pages through again from there and rows it has already
+     * stored are recognized as duplicates. What was applied is counted in {@code stats}.
+     */
+    private void applyPages(User user, PageStream stream, SyncMetrics.ItemStats stats) throws InterruptedException {
+        PlaidItem plaidItem = stream.plaidItem();
+        SyncPage page = takePage(stream);
+        CategoryResolver categories = new CategoryResolver(user, categorizationRuleService.matcherFor(user.getId()), stats);
+
+        // Accounts are reconciled with the first page; the references serve every later page
+        SyncPage first = page;
+        Map<String, Account> accountMap = transactionTemplate.execute(status -> {
+            Map<String, Account> reconciled = reconcileAccounts(plaidItem, first.accounts());
+            applyPage(user, plaidItem, first, reconciled, categories, stats);
+            return reconciled;
+        });
+        stats.committedInserts = stats.inserted;
+
+        int pages = 1;
+        long fetchNanos = page.fetchNanos();
+        while (!page.last()) {
+            page = takePage(stream);
+            SyncPage next = page;
+            transactionTemplate.executeWithoutResult(status ->
+                    applyPage(user, plaidItem, next, accountMap, categories, stats));
+            stats.committedInserts = stats.inserted;
+            pages++;
+            fetchNanos += page.fetchNanos();
+        }
+
+        syncMetrics.itemSynced(plaidItem.getId(), pages, fetchNanos, stats);
+    }
+
+    private static SyncPage takePage(PageStream stream) throws InterruptedException {
+        SyncPage page = stream.pages().poll(1, TimeUnit.SECONDS);
+        while (page == null) {
+            if (stream.fetcher().isDone()) {
+                // A fetcher cancelled before it ever ran never ends its stream
+                page = stream.pages().poll();
+                if (page == null) {
+                    throw new RuntimeException("Sync fetch stopped before the last page");
                 }
+            } else {
+                page = stream.pages().poll(1, TimeUnit.SECONDS);
+            }
+        }
+        if (page.error() instanceof RuntimeException e) {
+            throw e;
+        }
+        if (page.error() instanceof Error e) {
+            throw e;
+        }
+        if (page.error() != null) {
+            throw new RuntimeException(page.error());
+        }
+        return page;
+    }
 
-                // Process each transaction
-                for (com.plaid.client.model.Transaction plaidTxn : response.getTransactions()) {
-                    // Check if transaction already exists (deduplication)
-                    if (transactionRepository.findByPlaidTransactionId(plaidTxn.getTransactionId()).isPresent()) {
-                        continue; // Skip duplicate
-                    }
+    /**
+     * Write one page's added/modified/removed transactions, and the new cursor if it is the
+     * last page, in the caller's transaction.
+     */
+    private void applyPage(User user, PlaidItem plaidItem, SyncPage page, Map<String, Account> accountMap,
+                           CategoryResolver categories, SyncMetrics.ItemStats stats) {
+        // Taken first, so a backfill page for this item waits instead of racing us for the same rows
+        plaidItemRepository.lockById(plaidItem.getId());
+        int changesBefore = stats.changes();
+
+        if (!page.accounts().isEmpty()) {
+            // Today's point in the balance history, from the balances just stored
+            balanceHistoryService.recordBalances(user.getId(), plaidItem.getId());
+        }
 
-                    // Find the account for this transaction
-                    Account account = accountMap.get(plaidTxn.getAccountId());
-                    if (account == null) {
-                        continue; // Skip if account not found
-                    }
+        // Apply the deltas, remembering which dates they touch
+        Set<LocalDate> touchedDates = new HashSet<>();
+        insertNewTransactions(page.added(), accountMap, categories, touchedDates, stats);
+        applyModifiedTransactions(page.modified(), accountMap, categories, touchedDates, stats);
+        if (!page.removed().isEmpty()) {
+            stats.removed += page.removed().size();
+            touchedDates.addAll(transactionRepository.findDatesByPlaidTransactionIds(page.removed()));
+            transactionRepository.deleteByPlaidTransactionIds(page.removed());
+        }
 
-                    // Map Plaid transaction to our Transaction entity
-                    // Plaid date is a LocalDate object
-                    LocalDate transactionDate = plaidTxn.getDate() != null 
-                            ? plaidTxn.getDate() 
-                            : LocalDate.now();
-
-                    // Extract Plaid categories (check for nulls)
-                    String plaidCategory = null;
-                    String plaidDetailedCategory = null;
-                    
-                    if (plaidTxn.getPersonalFinanceCategory() != null) {
-                        if (plaidTxn.getPersonalFinanceCategory().getPrimary() != null) {
-                            plaidCategory = plaidTxn.getPersonalFinanceCategory().getPrimary();
-                        }
-                        if (plaidTxn.getPersonalFinanceCategory().getDetailed() != null) {
-                            plaidDetailedCategory = plaidTxn.getPersonalFinanceCategory().getDetailed();
-                        }
-                    }
+        // Keep the spending rollup in step with what just changed
+        spendingRollupService.refreshMonths(user.getId(), touchedDates);
 
-                    // Get or create category from Plaid category
-                    Category category = getOrCreateCategory(user, plaidCategory);
-
-                    Transaction transaction = Transaction.builder()
-                            .account(account)
-                            .plaidTransactionId(plaidTxn.getTransactionId())
-                            .amount(BigDecimal.valueOf(plaidTxn.getAmount()))
-                            .date(transactionDate)
-                            .description(plaidTxn.getName())
-                            .plaidCategory(plaidCategory)
-                            .plaidDetailedCategory(plaidDetailedCategory)
-                            .category(category)
-                            .build();
-
-                    transactionRepository.save(transaction);
-                    totalSaved++;
-                }
-            } catch (Exception e) {
-                // Log error but continue with other items
-                System.err.println("Error syncing transactions for PlaidItem " + plaidItem.getId() + ": " + e.getMessage());
+        // The stored cursor stays where this pagination started until the last page, as Plaid
+        // requires; pages replayed from there after a failure are absorbed by the dedup above
+        if (page.last()) {
+            plaidItemRepository.markSynced(plaidItem.getId(), page.nextCursor(), LocalDateTime.now());
+        }
+
+        // Last, so the users row is locked after the transaction rows, as in every other writer
+        if (stats.changes() > changesBefore) {
+            dataVersionService.bump(user.getId());
+        }
+    }
+
+    /**
+     * Store one page of older history from /transactions/get, see BackfillService.
+     * Transactions already stored, by an earlier page or by /transactions/sync, are skipped;
+     * later changes to them keep arriving through /transactions/sync.
+     * Returns the number of transactions inserted.
+     */
+    @Transactional
+    public int importHistory(UUID plaidItemId,
+                             List<com.plaid.client.model.AccountBase> plaidAccounts,
+                             List<com.plaid.client.model.Transaction> plaidTransactions) {
+        plaidItemRepository.lockById(plaidItemId);
+        PlaidItem plaidItem = plaidItemRepository.findById(plaidItemId)
+                .orElseThrow(() -> new RuntimeException("PlaidItem not found"));
+        User user = plaidItem.getUser();
+
+        SyncMetrics.ItemStats stats = syncMetrics.startApply();
+        Map<String, Account> accountMap = reconcileAccounts(plaidItem, plaidAccounts);
+        CategoryResolver categories = new CategoryResolver(user, categorizationRuleService.matcherFor(user.getId()), stats);
+        Set<LocalDate> touchedDates = new HashSet<>();
+        int inserted = saveNewTransactions(plaidTransactions, accountMap, categories, touchedDates, stats);
+        spendingRollupService.refreshMonths(user.getId(), touchedDates);
+
+        if (inserted > 0) {
+            dataVersionService.bump(user.getId());
+        }
+        return inserted;
+    }
+
+    /**
+     * Update amount, date and Plaid categories of transactions Plaid reports as modified.
+     * Description and category are left alone since the user may have edited them.
+     * Modifications for rows we have never seen are inserted instead.
+     * Returns the number of transactions inserted.
+     */
+    private int applyModifiedTransactions(List<MappedTransaction> mappedTransactions,
+                                          Map<String, Account> accountMap,
+                                          CategoryResolver categories,
+                                          Set<LocalDate> touchedDates,
+                                          SyncMetrics.ItemStats stats) {
+        if (mappedTransactions.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Transaction> existing = transactionRepository.findByPlaidTransactionIdIn(
+                        mappedTransactions.stream()
+                                .map(mapped -> mapped.transaction().getPlaidTransactionId())
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Transaction::getPlaidTransactionId, txn -> txn));
+
+        List<MappedTransaction> unknown = new ArrayList<>();
+        List<Transaction> updated = new ArrayList<>();
+        for (MappedTransaction mapped : mappedTransactions) {
+            Transaction changes = mapped.transaction();
+            Transaction transaction = existing.get(changes.getPlaidTransactionId());
+            if (transaction == null) {
+                unknown.add(mapped);
+                continue;
+            }
+
+            touchedDates.add(transaction.getDate());
+            transaction.setAmount(changes.getAmount());
+            if (changes.getDate() != null) {
+                transaction.setDate(changes.getDate());
+            }
+            touchedDates.add(transaction.getDate());
+            if (changes.getPlaidCategory() != null || changes.getPlaidDetailedCategory() != null) {
+                transaction.setPlaidCategory(changes.getPlaidCategory());
+                transaction.setPlaidDetailedCategory(changes.getPlaidDetailedCategory());
             }
+            updated.add(transaction);
         }
 
-        return totalSaved;
+        transactionRepository.saveAll(updated);
+        stats.modified += updated.size();
+        return insertNewTransactions(unknown, accountMap, categories, touchedDates, stats);
     }
 
     /**
-     * Helper method to create or update an Account entity
+     * Map and insert Plaid transactions we don't have yet, see {@link #insertNewTransactions}.
+     * Returns the number of transactions inserted.
      */
-    private void createOrUpdateAccount(PlaidItem plaidItem, com.plaid.client.model.AccountBase plaidAccount) {
-        // Check if account already exists by plaidAccountId
-        String plaidAccountId = plaidAccount.getAccountId();
-        Account existingAccount = accountRepository.findByPlaidAccountId(plaidAccountId)
-                .orElse(null);
+    private int saveNewTransactions(List<com.plaid.client.model.Transaction> plaidTransactions,
+                                    Map<String, Account> accountMap,
+                                    CategoryResolver categories,
+                                    Set<LocalDate> touchedDates,
+                                    SyncMetrics.ItemStats stats) {
+        return insertNewTransactions(mapTransactions(plaidTransactions), accountMap, categories, touchedDates, stats);
+    }
 
-        if (existingAccount != null) {
-            // Update balance if account exists
-            if (plaidAccount.getBalances() != null) {
-                Double currentBalance = plaidAccount.getBalances().getCurrent();
-                if (currentBalance != null) {
-                    existingAccount.setBalance(BigDecimal.valueOf(currentBalance));
-                    accountRepository.save(existingAccount);
-                }
+    /**
+     * Bulk ingestion stage: one query to find which Plaid ids we already have,
+     * then a single batched insert for everything that is new.
+     * Returns the number of transactions inserted.
+     */
+    private int insertNewTransactions(List<MappedTransaction> mappedTransactions,
+                                      Map<String, Account> accountMap,
+                                      CategoryResolver categories,
+                                      Set<LocalDate> touchedDates,
+                                      SyncMetrics.ItemStats stats) {
+        if (mappedTransactions.isEmpty()) {
+            return 0;
+        }
+
+        // Prefetch every known plaid_transaction_id for this page (deduplication)
+        Set<String> incomingIds = mappedTransactions.stream()
+                .map(mapped -> mapped.transaction().getPlaidTransactionId())
+                .collect(Collectors.toSet());
+        Set<String> seenIds = new HashSet<>(transactionRepository.findExistingPlaidTransactionIds(incomingIds));
+
+        List<Transaction> newTransactions = new ArrayList<>();
+        for (MappedTransaction mapped : mappedTransactions) {
+            Transaction transaction = mapped.transaction();
+            // Skip duplicates, including ones repeated inside the same page
+            if (!seenIds.add(transaction.getPlaidTransactionId())) {
+                stats.duplicates++;
+                continue;
             }
-        } else {
-            // Create new Account entity
-            BigDecimal balance = BigDecimal.ZERO;
-            if (plaidAccount.getBalances() != null) {
-                Double currentBalance = plaidAccount.getBalances().getCurrent();
-                if (currentBalance != null) {
-                    balance = BigDecimal.valueOf(currentBalance);
-                }
+
+            // Find the account for this transaction
+            Account account = accountMap.get(mapped.plaidAccountId());
+            if (account == null) {
+                stats.unknownAccount++;
+                continue; // Skip if account not found
+            }
+
+            transaction.setAccount(account);
+            if (transaction.getDate() == null) {
+                transaction.setDate(LocalDate.now());
             }
+            touchedDates.add(transaction.getDate());
+            newTransactions.add(transaction);
+        }
+
+        categories.assign(newTransactions);
 
-            Account newAccount = Account.builder()
-                    .plaidItem(plaidItem)
-                    .plaidAccountId(plaidAccountId)
-                    .name(plaidAccount.getName() != null ? plaidAccount.getName() : "Unknown Account")
-                    .type(plaidAccount.getType() != null ? plaidAccount.getType().toString() : "unknown")
-                    .balance(balance)
-                    .build();
+        // Flushed as JDBC batches (see hibernate.jdbc.batch_size)
+        transactionRepository.saveAll(newTransactions);
+        stats.inserted += newTransactions.size();
+        return newTransactions.size();
+    }
 
-            accountRepository.save(newAccount);
+    private static List<MappedTransaction> mapTransactions(List<com.plaid.client.model.Transaction> plaidTransactions) {
+        List<MappedTransaction> mapped = new ArrayList<>(plaidTransactions.size());
+        for (com.plaid.client.model.Transaction plaidTxn : plaidTransactions) {
+            mapped.add(new MappedTransaction(plaidTxn.getAccountId(), mapTransaction(plaidTxn)));
         }
+        return mapped;
     }
 
     /**
-     * Helper method to get or create a Category from Plaid category string
+     * Map a Plaid transaction to our Transaction entity. The account is linked when it is
+     * stored, and the category assigned for the whole page, see {@link CategoryResolver}.
      */
-    private Category getOrCreateCategory(User user, String plaidCategory) {
-        // If plaidCategory is null, return null
-        if (plaidCategory == null || plaidCategory.isEmpty()) {
-            return null;
+    private static Transaction mapTransaction(com.plaid.client.model.Transaction plaidTxn) {
+        // Extract Plaid categories (check for nulls)
+        String plaidCategory = null;
+        String plaidDetailedCategory = null;
+
+        if (plaidTxn.getPersonalFinanceCategory() != null) {
+            if (plaidTxn.getPersonalFinanceCategory().getPrimary() != null) {
+                plaidCategory = plaidTxn.getPersonalFinanceCategory().getPrimary();
+            }
+            if (plaidTxn.getPersonalFinanceCategory().getDetailed() != null) {
+                plaidDetailedCategory = plaidTxn.getPersonalFinanceCategory().getDetailed();
+            }
         }
 
-        // Format the name: "FOOD_AND_DRINK" -> "Food And Drink" (Title Case, replace underscores)
-        String formattedName = formatCategoryName(plaidCategory);
+        return Transaction.builder()
+                .plaidTransactionId(plaidTxn.getTransactionId())
+                .amount(BigDecimal.valueOf(plaidTxn.getAmount()))
+                // Left empty when Plaid sends none: a modification then keeps the stored date
+                // and a new row gets today's, see insertNewTransactions
+                .date(plaidTxn.getDate())
+                .description(plaidTxn.getName())
+                .plaidCategory(plaidCategory)
+                .plaidDetailedCategory(plaidDetailedCategory)
+                .build();
+    }
 
-        // Check if category exists for this user
-        Optional<Category> existingCategory = categoryRepository.findByNameAndUserId(formattedName, user.getId());
-        
-        if (existingCategory.isPresent()) {
-            return existingCategory.get();
+    /**
+     * Upsert the accounts Plaid reported in one statement (see AccountRepository.upsertForItem)
+     * and map each Plaid account id to a reference for linking transactions, without loading
+     * the accounts. Without an account list, falls back to the item's stored accounts.
+     */
+    private Map<String, Account> reconcileAccounts(PlaidItem plaidItem,
+                                                   List<com.plaid.client.model.AccountBase> plaidAccounts) {
+        if (plaidAccounts.isEmpty()) {
+            return accountRepository.findByPlaidItem(plaidItem).stream()
+                    .collect(Collectors.toMap(Account::getPlaidAccountId, acc -> acc));
         }
 
-        // Create new category
-        String colorHex = generateRandomColor();
-        
-        Category newCategory = Category.builder()
-                .user(user)
-                .name(formattedName)
-                .colorHex(colorHex)
-                .build();
+        // Postgres refuses to upsert the same row twice in one statement
+        Map<String, com.plaid.client.model.AccountBase> byId = new LinkedHashMap<>();
+        plaidAccounts.forEach(plaidAccount -> byId.put(plaidAccount.getAccountId(), plaidAccount));
+
+        int size = byId.size();
+        String[] ids = new String[size];
+        String[] names = new String[size];
+        String[] types = new String[size];
+        BigDecimal[] balances = new BigDecimal[size];
+        int i = 0;
+        for (com.plaid.client.model.AccountBase plaidAccount : byId.values()) {
+            ids[i] = plaidAccount.getAccountId();
+            names[i] = plaidAccount.getName() != null ? plaidAccount.getName() : "Unknown Account";
+            types[i] = plaidAccount.getType() != null ? plaidAccount.getType().toString() : "unknown";
+            // Null keeps the stored balance
+            Double current = plaidAccount.getBalances() != null ? plaidAccount.getBalances().getCurrent() : null;
+            balances[i] = current != null ? BigDecimal.valueOf(current) : null;
+            i++;
+        }
+
+        Map<String, Account> accountMap = new HashMap<>(size * 2);
+        for (AccountRepository.AccountId account : accountRepository.upsertForItem(
+                plaidItem.getId(), ids, names, types, balances)) {
+            accountMap.put(account.getPlaidAccountId(), accountRepository.getReferenceById(account.getId()));
+        }
+        return accountMap;
+    }
+
+    /**
+     * Category assignment for one sync of one user. The user's categories are loaded once,
+     * keyed by lower-cased name, instead of queried per transaction. Plaid categories the user
+     * doesn't have yet are created together in one insert per page.
+     */
+    private final class CategoryResolver {
+
+        private final User user;
+        private final RuleMatcher rules;
+        private final SyncMetrics.ItemStats stats;
+        // Loaded on first use, so items with nothing new cost no query
+        private Map<String, Category> byName;
+
+        CategoryResolver(User user, RuleMatcher rules, SyncMetrics.ItemStats stats) {
+            this.user = user;
+            this.rules = rules;
+            this.stats = stats;
+        }
+
+        /**
+         * Set each transaction's category: the user's own rules decide first, then Plaid's category.
+         */
+        void assign(List<Transaction> transactions) {
+            Map<String, List<Transaction>> missing = new LinkedHashMap<>();
+            for (Transaction transaction : transactions) {
+                // Rule hit: reference the category by id without loading it
+                UUID ruleCategoryId = rules.match(transaction.getDescription());
+                if (ruleCategoryId != null) {
+                    transaction.setCategory(categoryRepository.getReferenceById(ruleCategoryId));
+                    stats.ruleHits++;
+                    continue;
+                }
+
+                String plaidCategory = transaction.getPlaidCategory();
+                if (plaidCategory == null || plaidCategory.isEmpty()) {
+                    stats.uncategorized++;
+                    continue;
+                }
+                if (byName == null) {
+                    load();
+                }
+                String name = displayName(plaidCategory);
+                Category category = byName.get(key(name));
+                if (category != null) {
+                    transaction.setCategory(category);
+                    stats.plaidHits++;
+                } else {
+                    missing.computeIfAbsent(name, n -> new ArrayList<>()).add(transaction);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            // ON CONFLICT DO NOTHING: a concurrent sync creating the same name is fine, we just reload
+            List<String> names = new ArrayList<>(missing.keySet());
+            String[] colors = names.stream().map(n -> generateRandomColor()).toArray(String[]::new);
+            categoryRepository.insertIfAbsent(user.getId(), names.toArray(String[]::new), colors);
+            load();
+
+            missing.forEach((name, waiting) -> {
+                Category category = byName.get(key(name));
+                waiting.forEach(transaction -> transaction.setCategory(category));
+                stats.created += waiting.size();
+            });
+        }
+
+        private void load() {
+            byName = new HashMap<>();
+            for (Category category : categoryRepository.findByUser(user)) {
+                byName.putIfAbsent(key(category.getName()), category);
+            }
+        }
 
-        return categoryRepository.save(newCategory);
+        // Same normalization as the unique index on (user_id, lower(name))
+        private static String key(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Display name for a Plaid category code, from a process-wide cache. Plaid has a few dozen codes,
+     * so the cap only guards against unexpected input.
+     */
+    static String displayName(String plaidCategory) {
+        String cached = DISPLAY_NAMES.get(plaidCategory);
+        if (cached != null) {
+            return cached;
+        }
+        String name = formatCategoryName(plaidCategory);
+        if (DISPLAY_NAMES.size() < MAX_DISPLAY_NAMES) {
+            DISPLAY_NAMES.put(plaidCategory, name);
+        }
+        return name;
     }
 
     /**
      * Format Plaid category name to Title Case
      * Example: "FOOD_AND_DRINK" -> "Food And Drink"
      */
-    private String formatCategoryName(String plaidCategory) {
+    static String formatCategoryName(String plaidCategory) {
         if (plaidCategory == null || plaidCategory.isEmpty()) {
             return plaidCategory;
         }
@@ -239,11 +766,16 @@ public class TransactionSyncService {
         return formatted.toString();
     }
 
+    @PreDestroy
+    void stopFetchers() {
+        fetchers.shutdownNow();
+    }
+
     /**
      * Generate a random hex color
      */
     private String generateRandomColor() {
-        Random random = new Random();
+        Random random = ThreadLocalRandom.current();
         int r = random.nextInt(256);
         int g = random.nextInt(256);
         int b = random.nextInt(256);
@@ -0,0 +1,95 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of users by id, for requests that need the User entity and not just the
+ * id from the token, and by email, for tokens issued before they carried the id. Cached users
+ * are detached copies without their collections; treat them as read-only. Nothing evicts
+ * entries early: users are never updated or deleted, and emails never change.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${auth.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private record Entry(User user, long expiresAtNanos) {
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entriesByEmail = new ConcurrentHashMap<>();
+
+    /**
+     * @throws RuntimeException if the user no longer exists
+     */
+    public User get(UUID userId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            return entry.user();
+        }
+
+        User user = userRepository.findById(userId)
+                .map(UserCache::detachedCopy)
+                .orElseThrow(() -> {
+                    entries.remove(userId);
+                    return new RuntimeException("User not found");
+                });
+        put(entries, userId, new Entry(user, now + TimeUnit.SECONDS.toNanos(ttlSeconds)), now);
+        return user;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        long now = System.nanoTime();
+        Entry entry = entriesByEmail.get(email);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            return Optional.of(entry.user());
+        }
+
+        Optional<User> user = userRepository.findByEmail(email).map(UserCache::detachedCopy);
+        user.ifPresent(u -> {
+            Entry fresh = new Entry(u, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            put(entriesByEmail, email, fresh, now);
+            put(entries, u.getId(), fresh, now);
+        });
+        return user;
+    }
+
+    private <K> void put(Map<K, Entry> cache, K key, Entry entry, long now) {
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(e -> now - e.expiresAtNanos() >= 0);
+            if (cache.size() >= maxSize) {
+                // Still full of live entries: serve this one uncached rather than grow
+                return;
+            }
+        }
+        cache.put(key, entry);
+    }
+
+    // Lombok equals/hashCode/toString walk the lazy collections, which would fail once detached
+    private static User detachedCopy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .passwordHash(user.getPasswordHash())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,2 @@
+-- Re-categorization walks each account's transactions in id order, one chunk at a time
+CREATE INDEX idx_transactions_account_id ON transactions (account_id, id);
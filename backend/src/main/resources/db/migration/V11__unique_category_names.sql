@@ -0,0 +1,16 @@
+-- Category names become unique per user, ignoring case. Merge existing duplicates into
+-- the first of each group (by id) before adding the constraint.
+CREATE TEMPORARY TABLE category_duplicates AS
+SELECT id, first_value(id) OVER (PARTITION BY user_id, lower(name) ORDER BY id) AS keep_id
+FROM categories;
+
+DELETE FROM category_duplicates WHERE id = keep_id;
+
+UPDATE transactions t SET category_id = d.keep_id FROM category_duplicates d WHERE t.category_id = d.id;
+UPDATE categorization_rules r SET category_id = d.keep_id FROM category_duplicates d WHERE r.category_id = d.id;
+UPDATE spending_rollup s SET category_id = d.keep_id FROM category_duplicates d WHERE s.category_id = d.id;
+DELETE FROM categories c USING category_duplicates d WHERE c.id = d.id;
+
+DROP TABLE category_duplicates;
+
+CREATE UNIQUE INDEX uq_categories_user_name ON categories (user_id, lower(name));
@@ -0,0 +1,2 @@
+-- Bumped whenever a user's transactions or categories change; served as the ETag of their listings
+ALTER TABLE users ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
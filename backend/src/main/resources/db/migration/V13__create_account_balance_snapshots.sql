@@ -0,0 +1,54 @@
+-- Balance history: one row per account per day, written by every sync (the day's last sync wins).
+-- Range-partitioned by month, so net-worth queries only touch the months they cover and old
+-- months can be detached or dropped whole.
+CREATE TABLE account_balance_snapshots (
+    account_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    snapshot_date DATE NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (account_id, snapshot_date),
+    CONSTRAINT fk_balance_snapshots_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+) PARTITION BY RANGE (snapshot_date);
+
+CREATE INDEX idx_balance_snapshots_user_date ON account_balance_snapshots (user_id, snapshot_date);
+
+-- Only used when a month's partition was not created in time
+CREATE TABLE account_balance_snapshots_default PARTITION OF account_balance_snapshots DEFAULT;
+
+-- Creates the partition for the month starting at month_start unless it exists, moving any rows
+-- for that month out of the default partition first. Returns the partition's name.
+CREATE FUNCTION ensure_balance_snapshot_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'account_balance_snapshots_' || to_char(month_start, 'YYYY_MM');
+    month_end DATE := (month_start + INTERVAL '1 month')::date;
+BEGIN
+    -- Serializes instances racing to create the same month
+    PERFORM pg_advisory_xact_lock(hashtext('account_balance_snapshots'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    CREATE TEMPORARY TABLE balance_snapshot_strays ON COMMIT DROP AS
+    SELECT * FROM account_balance_snapshots_default
+    WHERE snapshot_date >= month_start AND snapshot_date < month_end;
+    DELETE FROM account_balance_snapshots_default
+    WHERE snapshot_date >= month_start AND snapshot_date < month_end;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF account_balance_snapshots FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+
+    INSERT INTO account_balance_snapshots SELECT * FROM balance_snapshot_strays;
+    DROP TABLE balance_snapshot_strays;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- This month and the next two; BalanceHistoryService keeps creating them ahead from here on
+SELECT ensure_balance_snapshot_partition((date_trunc('month', CURRENT_DATE) + m * INTERVAL '1 month')::date)
+FROM generate_series(0, 2) AS m;
+
+-- Seed today's point from the balances we already have
+INSERT INTO account_balance_snapshots (account_id, user_id, snapshot_date, balance)
+SELECT a.id, p.user_id, CURRENT_DATE, a.balance
+FROM accounts a
+         JOIN plaid_items p ON p.id = a.plaid_item_id;
@@ -0,0 +1,2 @@
+-- Webhooks identify the item by Plaid's item_id
+CREATE INDEX idx_plaid_items_item_id ON plaid_items (item_id);
@@ -0,0 +1,21 @@
+-- History import for newly linked items (see BackfillService). It walks back from the link date
+-- one date window at a time, paging each window by offset; window_end and page_offset are the
+-- checkpoint, committed together with every page it imports.
+CREATE TABLE backfill_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    plaid_item_id UUID NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL,
+    start_date DATE NOT NULL,
+    window_end DATE NOT NULL,
+    page_offset INTEGER NOT NULL DEFAULT 0,
+    transactions_added INTEGER NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    CONSTRAINT fk_backfill_jobs_plaid_item FOREIGN KEY (plaid_item_id) REFERENCES plaid_items(id) ON DELETE CASCADE
+);
+
+-- Workers poll for unfinished jobs that are due
+CREATE INDEX idx_backfill_jobs_due ON backfill_jobs (status, next_attempt_at);
@@ -0,0 +1,4 @@
+-- Backfill jobs are claimed with a conditional UPDATE that bumps version; a runner whose claim
+-- lapsed and was taken over fails its next checkpoint write instead of racing the new owner.
+-- While a job is RUNNING, next_attempt_at is the end of its claim and is renewed with every page.
+ALTER TABLE backfill_jobs ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
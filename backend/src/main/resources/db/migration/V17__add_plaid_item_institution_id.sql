@@ -0,0 +1,3 @@
+-- Plaid's institution_id from /item/get keys the per-bank bulkhead and circuit breaker. Items
+-- linked before this column existed get theirs on their next sync or backfill.
+ALTER TABLE plaid_items ADD COLUMN institution_id VARCHAR(255);
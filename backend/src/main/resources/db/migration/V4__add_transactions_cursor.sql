@@ -0,0 +1,2 @@
+ALTER TABLE plaid_items
+    ADD COLUMN transactions_cursor TEXT;
\ No newline at end of file
@@ -0,0 +1,7 @@
+ALTER TABLE plaid_items
+    ADD COLUMN last_synced_at TIMESTAMP,
+    ADD COLUMN next_sync_at TIMESTAMP,
+    ADD COLUMN sync_failures INTEGER NOT NULL DEFAULT 0;
+
+-- Background scheduler scans ACTIVE items whose next_sync_at has passed
+CREATE INDEX idx_plaid_items_status_next_sync ON plaid_items (status, next_sync_at);
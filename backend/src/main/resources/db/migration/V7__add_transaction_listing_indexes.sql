@@ -0,0 +1,6 @@
+-- Keyset pagination walks each account's transactions newest first
+CREATE INDEX idx_transactions_account_date_id ON transactions (account_id, date DESC, id DESC);
+
+-- Ownership joins (user -> plaid_items -> accounts) otherwise scan both tables
+CREATE INDEX idx_plaid_items_user ON plaid_items (user_id);
+CREATE INDEX idx_accounts_plaid_item ON accounts (plaid_item_id);
@@ -0,0 +1,27 @@
+-- Monthly spending totals per (user, account, category). Spending means amount > 0,
+-- which is money leaving the account in Plaid's sign convention.
+-- Rows are rebuilt per (user, month) whenever transactions in that month change.
+CREATE TABLE spending_rollup (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    month DATE NOT NULL,
+    account_id UUID NOT NULL,
+    category_id UUID,
+    total DECIMAL(19, 2) NOT NULL,
+    transaction_count INTEGER NOT NULL,
+    CONSTRAINT fk_spending_rollup_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_spending_rollup_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    -- A deleted category folds into "uncategorized", same as its transactions
+    CONSTRAINT fk_spending_rollup_category FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL
+);
+
+CREATE INDEX idx_spending_rollup_user_month ON spending_rollup (user_id, month);
+
+-- Seed from existing history
+INSERT INTO spending_rollup (user_id, month, account_id, category_id, total, transaction_count)
+SELECT p.user_id, date_trunc('month', t.date)::date, t.account_id, t.category_id, SUM(t.amount), COUNT(*)
+FROM transactions t
+         JOIN accounts a ON a.id = t.account_id
+         JOIN plaid_items p ON p.id = a.plaid_item_id
+WHERE t.amount > 0
+GROUP BY p.user_id, date_trunc('month', t.date), t.account_id, t.category_id;
@@ -0,0 +1,5 @@
+-- Deleting a category nulls out (or cascades to) every row referencing it; without these
+-- indexes each delete scans the whole referencing table
+CREATE INDEX idx_transactions_category ON transactions (category_id);
+CREATE INDEX idx_categorization_rules_category ON categorization_rules (category_id);
+CREATE INDEX idx_spending_rollup_category ON spending_rollup (category_id);
@@ -0,0 +1,81 @@
+package com.anshdesai.backend;
+
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.AccountRepository;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.anshdesai.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Seeds the User -> PlaidItem -> Account -> Category -> Transaction graph for tests that run
+ * against the database; pull it in with {@code @Import(TestFixtures.class)}. Every unique key
+ * is random, so tests that commit their rows don't collide with each other.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final PlaidItemRepository plaidItemRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+
+    // Flushed, so statements counted after it don't include the insert
+    public User user() {
+        return userRepository.saveAndFlush(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("hash")
+                .build());
+    }
+
+    public PlaidItem item(User user) {
+        return plaidItemRepository.save(PlaidItem.builder()
+                .user(user)
+                .accessToken("access-" + UUID.randomUUID())
+                .itemId("item-" + UUID.randomUUID())
+                .status("ACTIVE")
+                .build());
+    }
+
+    public Account account(PlaidItem item, String name) {
+        return account(item, name, "depository", BigDecimal.ZERO);
+    }
+
+    public Account account(PlaidItem item, String name, String type, BigDecimal balance) {
+        return accountRepository.save(Account.builder()
+                .plaidItem(item)
+                .plaidAccountId("acc-" + UUID.randomUUID())
+                .name(name)
+                .type(type)
+                .balance(balance)
+                .build());
+    }
+
+    public Category category(User user, String name) {
+        return categoryRepository.save(Category.builder()
+                .user(user)
+                .name(name)
+                .colorHex("#2979ff")
+                .build());
+    }
+
+    // Not saved, so callers can set the fields they care about and save one or a batch
+    public Transaction.TransactionBuilder transaction(Account account) {
+        return Transaction.builder()
+                .account(account)
+                .plaidTransactionId("txn-" + UUID.randomUUID())
+                .amount(BigDecimal.ONE)
+                .date(LocalDate.now())
+                .description("Transaction");
+    }
+}
@@ -0,0 +1,99 @@
+package com.anshdesai.backend.controller;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.security.JwtUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listings answer If-None-Match from the per-user data version: 304 without any query while
+ * nothing changed, a new ETag once something did. Not transactional, since versions are only
+ * published when the change commits.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User user = fixtures.user();
+        token = jwtUtils.generateToken(user.getId(), user.getEmail());
+    }
+
+    @Test
+    void unchangedListingIsNotModifiedWithoutQueries() throws Exception {
+        String etag = fetch("/api/transactions").getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/transactions")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void categoryChangeInvalidatesTheETag() throws Exception {
+        String before = fetch("/api/categories").getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/categories")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Coffee\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult after = mockMvc.perform(get("/api/categories")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(after.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+        assertThat(after.getResponse().getContentAsString()).contains("Coffee");
+        // Both listings share the version, so the transaction listing moved on too
+        assertThat(fetch("/api/transactions").getResponse().getHeader(HttpHeaders.ETAG))
+                .isEqualTo(after.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    private MvcResult fetch(String path) throws Exception {
+        return mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
@@ -0,0 +1,163 @@
+package com.anshdesai.backend.controller;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.TransactionRepository;
+import com.anshdesai.backend.security.JwtUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks GET /api/transactions/page the way a client does: following nextCursor until it runs
+ * out, with and without filters, and with cursors it never handed out.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@Import(TestFixtures.class)
+class TransactionPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private JsonMapper jsonMapper;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private String token;
+    private Account checking;
+    private Category food;
+    private final List<Transaction> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = fixtures.user();
+        PlaidItem item = fixtures.item(user);
+        checking = fixtures.account(item, "Checking");
+        Account savings = fixtures.account(item, "Savings");
+        food = fixtures.category(user, "Food");
+        Category travel = fixtures.category(user, "Travel");
+
+        // Three rows a day across both accounts, so pages break inside a date
+        for (int i = 0; i < 40; i++) {
+            seeded.add(transactionRepository.save(fixtures.transaction(i % 2 == 0 ? checking : savings)
+                    .category(i % 3 == 0 ? food : travel)
+                    .amount(BigDecimal.valueOf(i + 1))
+                    .date(LocalDate.of(2024, 3, 1).minusDays(i / 3))
+                    .description(i % 4 == 0 ? "Coffee " + i : "Groceries " + i)
+                    .build()));
+        }
+        transactionRepository.flush();
+        token = jwtUtils.generateToken(user.getId(), user.getEmail());
+    }
+
+    @Test
+    void followingTheCursorVisitsEveryRowOnceInOrder() throws Exception {
+        List<UUID> visited = walk(7);
+
+        assertThat(visited).containsExactlyElementsOf(expected(seeded));
+    }
+
+    @Test
+    void filtersHoldAcrossPages() throws Exception {
+        List<UUID> visited = walk(2,
+                "accountId", checking.getId().toString(),
+                "categoryId", food.getId().toString(),
+                "from", "2024-02-20",
+                "minAmount", "2");
+
+        assertThat(visited).containsExactlyElementsOf(expected(seeded.stream()
+                .filter(txn -> txn.getAccount().getId().equals(checking.getId()))
+                .filter(txn -> txn.getCategory().getId().equals(food.getId()))
+                .filter(txn -> !txn.getDate().isBefore(LocalDate.of(2024, 2, 20)))
+                .filter(txn -> txn.getAmount().compareTo(BigDecimal.TWO) >= 0)
+                .toList()));
+        assertThat(visited).isNotEmpty();
+
+        assertThat(walk(3, "q", "COFFEE"))
+                .containsExactlyElementsOf(expected(seeded.stream()
+                        .filter(txn -> txn.getDescription().startsWith("Coffee"))
+                        .toList()));
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        String notBase64 = "not a cursor!";
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2024-03-01".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("2024-03-01|42".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of(notBase64, noSeparator, badId)) {
+            mockMvc.perform(get("/api/transactions/page")
+                            .param("cursor", cursor)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // Pages through the listing with the given filter parameters (name, value, ...)
+    private List<UUID> walk(int limit, String... filters) throws Exception {
+        List<UUID> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/transactions/page")
+                    .param("limit", String.valueOf(limit))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            for (int i = 0; i < filters.length; i += 2) {
+                request.param(filters[i], filters[i + 1]);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = jsonMapper.readTree(body);
+            assertThat(page.path("items").size()).isLessThanOrEqualTo(limit);
+            page.path("items").forEach(item -> visited.add(UUID.fromString(item.path("id").stringValue())));
+            cursor = page.path("nextCursor").stringValue(null);
+        } while (cursor != null);
+        return visited;
+    }
+
+    // Newest first; ids compared as text, which is how Postgres orders uuids
+    private static List<UUID> expected(List<Transaction> rows) {
+        return rows.stream()
+                .sorted(Comparator.comparing(Transaction::getDate)
+                        .thenComparing((Transaction txn) -> txn.getId().toString())
+                        .reversed())
+                .map(Transaction::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,326 @@
+package com.anshdesai.backend.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for the Plaid API. Serves the endpoints the backend calls over real HTTP, so the
+ * Plaid client and its JSON handling are exercised too; point plaid.base-url at {@link #baseUrl()}.
+ *
+ * Data is synthetic and deterministic: the n-th exchanged public token always yields item n with
+ * the same institution, accounts and transaction history. Every response can be delayed by a
+ * fixed latency, and a share of requests can be failed with a Plaid-style 500; {@link #failNext}
+ * injects exact faults for tests.
+ */
+public class FakePlaidServer implements AutoCloseable {
+
+    /**
+     * @param transactionsPerItem history size returned by /transactions/sync for every item
+     * @param institutions        banks the items are spread across, as /item/get reports them
+     * @param latency             added to every response
+     * @param errorRate           share of requests (0..1) answered with INTERNAL_SERVER_ERROR
+     */
+    public record Settings(int accountsPerItem, int transactionsPerItem, int institutions, Duration latency,
+                           double errorRate, long seed) {
+    }
+
+    // Plaid caps /transactions/sync and /transactions/get pages at 500
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final LocalDate HISTORY_END = LocalDate.of(2025, 12, 31);
+    private static final int HISTORY_DAYS = 730;
+
+    private static final String[][] CATEGORIES = {
+            {"FOOD_AND_DRINK", "FOOD_AND_DRINK_COFFEE"},
+            {"FOOD_AND_DRINK", "FOOD_AND_DRINK_RESTAURANT"},
+            {"GENERAL_MERCHANDISE", "GENERAL_MERCHANDISE_ONLINE_MARKETPLACES"},
+            {"TRANSPORTATION", "TRANSPORTATION_TAXIS_AND_RIDE_SHARES"},
+            {"TRANSPORTATION", "TRANSPORTATION_GAS"},
+            {"TRAVEL", "TRAVEL_FLIGHTS"},
+            {"ENTERTAINMENT", "ENTERTAINMENT_TV_AND_MOVIES"},
+            {"RENT_AND_UTILITIES", "RENT_AND_UTILITIES_RENT"},
+            {"INCOME", "INCOME_WAGES"},
+            {"MEDICAL", "MEDICAL_PHARMACIES_AND_SUPPLEMENTS"}};
+
+    private static final String[] MERCHANTS = {
+            "STARBUCKS STORE 1234", "CORNER BISTRO", "AMAZON MKTPLACE PMTS", "UBER TRIP", "SHELL OIL 5744",
+            "DELTA AIR 0062", "NETFLIX.COM", "ACME PROPERTY MGMT", "PAYROLL ACME CORP", "CVS/PHARMACY #0123"};
+
+    private final Settings settings;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final AtomicInteger items = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger faultsLeft = new AtomicInteger();
+    private volatile int faultStatus;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+
+    private FakePlaidServer(Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        route("/link/token/create", this::linkTokenCreate);
+        route("/item/public_token/exchange", this::publicTokenExchange);
+        route("/item/get", this::itemGet);
+        route("/transactions/sync", this::transactionsSync);
+        route("/transactions/get", this::transactionsGet);
+    }
+
+    public static FakePlaidServer start(Settings settings) throws IOException {
+        FakePlaidServer fake = new FakePlaidServer(settings);
+        fake.server.start();
+        return fake;
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answer the next {@code count} requests with {@code status} and a matching Plaid error body.
+     */
+    public void failNext(int count, int status) {
+        faultStatus = status;
+        faultsLeft.set(count);
+    }
+
+    /**
+     * Requests received so far, including failed ones.
+     */
+    public int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Map<String, Object> linkTokenCreate(JsonNode request) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("link_token", "link-fake-" + UUID.randomUUID());
+        response.put("expiration", "2099-01-01T00:00:00Z");
+        response.put("request_id", requestId());
+        return response;
+    }
+
+    private Map<String, Object> publicTokenExchange(JsonNode request) {
+        int item = items.incrementAndGet();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", "access-fake-" + item);
+        response.put("item_id", "item-fake-" + item);
+        response.put("request_id", requestId());
+        return response;
+    }
+
+    private Map<String, Object> itemGet(JsonNode request) {
+        int item = itemNumber(request.path("access_token").stringValue(""));
+        Map<String, Object> plaidItem = new LinkedHashMap<>();
+        plaidItem.put("item_id", "item-fake-" + item);
+        plaidItem.put("institution_id", "ins_fake_" + item % Math.max(settings.institutions(), 1));
+        plaidItem.put("webhook", null);
+        plaidItem.put("error", null);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("item", plaidItem);
+        response.put("request_id", requestId());
+        return response;
+    }
+
+    // The cursor is simply the offset of the next transaction in the item's history
+    private Map<String, Object> transactionsSync(JsonNode request) {
+        int item = itemNumber(request.path("access_token").stringValue(""));
+        String cursor = request.path("cursor").stringValue(null);
+        int offset = cursor == null || cursor.isEmpty() ? 0 : Integer.parseInt(cursor);
+        int count = Math.min(request.path("count").asInt(100), MAX_PAGE_SIZE);
+        int end = Math.min(offset + count, settings.transactionsPerItem());
+
+        List<Map<String, Object>> added = new ArrayList<>(Math.max(end - offset, 0));
+        for (int i = offset; i < end; i++) {
+            added.add(transaction(item, i));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accounts", accounts(item));
+        response.put("added", added);
+        response.put("modified", List.of());
+        response.put("removed", List.of());
+        response.put("next_cursor", String.valueOf(Math.max(end, offset)));
+        response.put("has_more", end < settings.transactionsPerItem());
+        response.put("transactions_update_status", "HISTORICAL_UPDATE_COMPLETE");
+        response.put("request_id", requestId());
+        return response;
+    }
+
+    // Same history as /transactions/sync, newest first, limited to start_date..end_date and paged by offset
+    private Map<String, Object> transactionsGet(JsonNode request) {
+        int item = itemNumber(request.path("access_token").stringValue(""));
+        LocalDate start = LocalDate.parse(request.path("start_date").stringValue(""));
+        LocalDate end = LocalDate.parse(request.path("end_date").stringValue(""));
+        int offset = request.path("options").path("offset").asInt(0);
+        int count = Math.min(request.path("options").path("count").asInt(100), MAX_PAGE_SIZE);
+
+        List<Map<String, Object>> transactions = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < settings.transactionsPerItem(); i++) {
+            LocalDate date = date(i);
+            if (date.isBefore(start) || date.isAfter(end)) {
+                continue;
+            }
+            if (total >= offset && transactions.size() < count) {
+                transactions.add(transaction(item, i));
+            }
+            total++;
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accounts", accounts(item));
+        response.put("transactions", transactions);
+        response.put("total_transactions", total);
+        response.put("request_id", requestId());
+        return response;
+    }
+
+    private List<Map<String, Object>> accounts(int item) {
+        List<Map<String, Object>> accounts = new ArrayList<>(settings.accountsPerItem());
+        for (int a = 0; a < settings.accountsPerItem(); a++) {
+            Map<String, Object> balances = new LinkedHashMap<>();
+            balances.put("available", 1_000.0 * (a + 1));
+            balances.put("current", 1_250.0 * (a + 1));
+            balances.put("limit", null);
+            balances.put("iso_currency_code", "USD");
+            balances.put("unofficial_currency_code", null);
+
+            Map<String, Object> account = new LinkedHashMap<>();
+            account.put("account_id", accountId(item, a));
+            account.put("balances", balances);
+            account.put("mask", String.format("%04d", a));
+            account.put("name", "Fake Checking " + a);
+            account.put("official_name", null);
+            account.put("type", "depository");
+            account.put("subtype", "checking");
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private Map<String, Object> transaction(int item, int index) {
+        Random random = new Random(settings.seed() * 31 + item * 1_000_003L + index);
+        String[] category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+        LocalDate date = date(index);
+
+        Map<String, Object> personalFinanceCategory = new LinkedHashMap<>();
+        personalFinanceCategory.put("primary", category[0]);
+        personalFinanceCategory.put("detailed", category[1]);
+        personalFinanceCategory.put("confidence_level", "VERY_HIGH");
+
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("transaction_id", "txn-fake-" + item + "-" + index);
+        transaction.put("account_id", accountId(item, index % settings.accountsPerItem()));
+        transaction.put("amount", (1 + random.nextInt(50_000)) / 100.0);
+        transaction.put("iso_currency_code", "USD");
+        transaction.put("unofficial_currency_code", null);
+        transaction.put("date", date.toString());
+        transaction.put("authorized_date", date.toString());
+        transaction.put("name", merchant);
+        transaction.put("merchant_name", merchant);
+        transaction.put("payment_channel", "in store");
+        transaction.put("pending", false);
+        transaction.put("pending_transaction_id", null);
+        transaction.put("account_owner", null);
+        transaction.put("transaction_code", null);
+        transaction.put("personal_finance_category", personalFinanceCategory);
+        return transaction;
+    }
+
+    private LocalDate date(int index) {
+        return HISTORY_END.minusDays((long) index * HISTORY_DAYS / Math.max(settings.transactionsPerItem(), 1));
+    }
+
+    private void route(String path, Function<JsonNode, Map<String, Object>> handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                JsonNode request = jsonMapper.readTree(exchange.getRequestBody());
+                requests.incrementAndGet();
+                sleep(settings.latency());
+                if (faultsLeft.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                    respond(exchange, faultStatus, error(faultStatus));
+                } else if (ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+                    respond(exchange, 500, error(500));
+                } else {
+                    respond(exchange, 200, handler.apply(request));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Fake Plaid failed on " + path + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private Map<String, Object> error(int status) {
+        String[] typeAndCode = switch (status) {
+            case 400 -> new String[]{"INVALID_REQUEST", "INVALID_FIELD"};
+            case 429 -> new String[]{"RATE_LIMIT_EXCEEDED", "TRANSACTIONS_SYNC_LIMIT"};
+            default -> new String[]{"API_ERROR", "INTERNAL_SERVER_ERROR"};
+        };
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error_type", typeAndCode[0]);
+        error.put("error_code", typeAndCode[1]);
+        error.put("error_message", "injected by FakePlaidServer");
+        error.put("display_message", null);
+        error.put("request_id", requestId());
+        return error;
+    }
+
+    private static int itemNumber(String accessToken) {
+        return Integer.parseInt(accessToken.substring(accessToken.lastIndexOf('-') + 1));
+    }
+
+    private static String accountId(int item, int account) {
+        return "acc-fake-" + item + "-" + account;
+    }
+
+    private static String requestId() {
+        return UUID.randomUUID().toString().substring(0, 15);
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
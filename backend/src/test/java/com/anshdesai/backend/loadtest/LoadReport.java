@@ -0,0 +1,90 @@
+package com.anshdesai.backend.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencies recorded per endpoint during a load test, summarized as p50/p99 and throughput.
+ * Endpoints are reported in the order they were first hit.
+ */
+class LoadReport {
+
+    record Summary(String endpoint, int requests, int failures, double p50Ms, double p99Ms, double maxMs,
+                   double requestsPerSecond) {
+    }
+
+    private final Map<String, Endpoint> endpoints = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Record one request, timed with System.nanoTime().
+     */
+    void record(String endpoint, long startNanos, long endNanos, boolean succeeded) {
+        endpoints.computeIfAbsent(endpoint, e -> new Endpoint()).add(startNanos, endNanos, succeeded);
+    }
+
+    List<Summary> summarize() {
+        List<Summary> summaries = new ArrayList<>();
+        synchronized (endpoints) {
+            endpoints.forEach((name, endpoint) -> summaries.add(endpoint.summarize(name)));
+        }
+        return summaries;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-36s %8s %8s %10s %10s %10s %10s%n", "endpoint", "requests", "failed", "p50 ms", "p99 ms", "max ms", "req/s");
+        for (Summary s : summarize()) {
+            out.printf("%-36s %8d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    s.endpoint(), s.requests(), s.failures(), s.p50Ms(), s.p99Ms(), s.maxMs(), s.requestsPerSecond());
+        }
+    }
+
+    void write(Path path) throws Exception {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), summarize());
+    }
+
+    private static final class Endpoint {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private int failures;
+        private long firstStart = Long.MAX_VALUE;
+        private long lastEnd = Long.MIN_VALUE;
+
+        synchronized void add(long startNanos, long endNanos, boolean succeeded) {
+            latencies.add(endNanos - startNanos);
+            if (!succeeded) {
+                failures++;
+            }
+            firstStart = Math.min(firstStart, startNanos);
+            lastEnd = Math.max(lastEnd, endNanos);
+        }
+
+        synchronized Summary summarize(String name) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            // Throughput over the window in which this endpoint was being called
+            double windowSeconds = Math.max(lastEnd - firstStart, 1) / 1e9;
+            return new Summary(name, sorted.size(), failures,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(sorted.getLast()), sorted.size() / windowSeconds);
+        }
+
+        // Nearest-rank percentile
+        private static long percentile(List<Long> sorted, double p) {
+            int rank = (int) Math.ceil(p * sorted.size());
+            return sorted.get(Math.max(rank - 1, 0));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
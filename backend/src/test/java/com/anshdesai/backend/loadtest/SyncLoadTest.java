@@ -0,0 +1,210 @@
+package com.anshdesai.backend.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives register/login, linking, sync, listing and export for many users at once against the full
+ * application, an embedded Postgres and {@link FakePlaidServer}, then reports p50/p99 latency
+ * and throughput per endpoint (stdout and target/loadtest-report.json).
+ *
+ * Tagged "load" and skipped by default; run with {@code mvn -P loadtest test}. Sizing comes from
+ * system properties, e.g. {@code -Dloadtest.users=200 -Dloadtest.concurrency=32}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Measures linking and syncing only; history imports would compete for the same Plaid budget.
+        // The fake Plaid has no rate limit of its own, so ours is lifted rather than measured
+        properties = {"sync.scheduler.enabled=false", "backfill.enabled=false",
+                "plaid.rate-limit.permits-per-second=100000", "plaid.rate-limit.burst=100000"})
+class SyncLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int ACCOUNTS_PER_ITEM = Integer.getInteger("loadtest.accounts-per-item", 3);
+    private static final int TRANSACTIONS_PER_ITEM = Integer.getInteger("loadtest.transactions-per-item", 2_000);
+    private static final int INSTITUTIONS = Integer.getInteger("loadtest.institutions", 5);
+    private static final int LISTING_PAGES = Integer.getInteger("loadtest.listing-pages", 10);
+    private static final long PLAID_LATENCY_MS = Long.getLong("loadtest.plaid-latency-ms", 50);
+    private static final double PLAID_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.plaid-error-rate", "0"));
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+    private static final Set<String> UNFINISHED = Set.of("QUEUED", "RUNNING");
+
+    private static EmbeddedPostgres postgres;
+    private static FakePlaidServer plaid;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final LoadReport report = new LoadReport();
+
+    @BeforeAll
+    static void startBackends() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        plaid = FakePlaidServer.start(new FakePlaidServer.Settings(ACCOUNTS_PER_ITEM, TRANSACTIONS_PER_ITEM, INSTITUTIONS,
+                Duration.ofMillis(PLAID_LATENCY_MS), PLAID_ERROR_RATE, 42));
+    }
+
+    @AfterAll
+    static void stopBackends() throws Exception {
+        plaid.close();
+        postgres.close();
+    }
+
+    @DynamicPropertySource
+    static void backendProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Math.max(10, CONCURRENCY));
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @Test
+    void registerLinkSyncAndList() throws Exception {
+        AtomicInteger failedSyncs = new AtomicInteger();
+
+        List<Future<?>> users = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY)) {
+            for (int n = 0; n < USERS; n++) {
+                int user = n;
+                users.add(clients.submit(() -> {
+                    if (!runUser(user)) {
+                        failedSyncs.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+        }
+
+        System.out.printf("%n%d users, %d concurrent, %d transactions per item, Plaid latency %d ms, error rate %.2f%n",
+                USERS, CONCURRENCY, TRANSACTIONS_PER_ITEM, PLAID_LATENCY_MS, PLAID_ERROR_RATE);
+        report.print(System.out);
+        report.write(REPORT);
+
+        // The server-side view of the same run
+        String metrics = http.send(HttpRequest.newBuilder(uri("/actuator/prometheus")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        assertThat(metrics).contains("sync_items_total", "sync_item_duration_seconds", "plaid_requests_seconds",
+                "http_server_requests_db_statements");
+
+        if (PLAID_ERROR_RATE == 0) {
+            assertThat(failedSyncs).hasValue(0);
+        }
+    }
+
+    /**
+     * One user's session. Returns whether their sync succeeded and the export held all of it.
+     */
+    private boolean runUser(int n) throws Exception {
+        Map<String, String> credentials = Map.of("email", "load-" + n + "@example.com", "password", "load-test-password");
+        call("POST /api/auth/register", post("/api/auth/register", null, credentials));
+        String token = json(call("POST /api/auth/login", post("/api/auth/login", null, credentials)))
+                .path("token").stringValue();
+
+        call("POST /api/plaid/public-token", post("/api/plaid/public-token", token,
+                Map.of("public_token", "public-fake-" + n, "institution_name", "Fake Bank " + n % INSTITUTIONS)));
+
+        // Sync: enqueue (retrying while the job queue is full), then poll until the job finishes
+        long syncStart = System.nanoTime();
+        HttpResponse<String> enqueued;
+        while ((enqueued = call("POST /api/transactions/sync", post("/api/transactions/sync", token, null))).statusCode() == 503) {
+            Thread.sleep(1_000);
+        }
+        JsonNode job = json(enqueued);
+        while (UNFINISHED.contains(job.path("status").stringValue())) {
+            Thread.sleep(100);
+            job = json(call("GET /api/transactions/sync/{id}", get("/api/transactions/sync/" + job.path("id").stringValue(), token)));
+        }
+        // A first sync of a new item must store its whole history
+        boolean synced = "SUCCEEDED".equals(job.path("status").stringValue())
+                && job.path("transactionsAdded").asInt() == TRANSACTIONS_PER_ITEM;
+        report.record("sync job (enqueue to finished)", syncStart, System.nanoTime(), synced);
+
+        // Listing: page through the newest transactions
+        String cursor = null;
+        for (int page = 0; page < LISTING_PAGES; page++) {
+            String query = "/api/transactions/page?limit=50"
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            cursor = json(call("GET /api/transactions/page", get(query, token))).path("nextCursor").stringValue(null);
+            if (cursor == null) {
+                break;
+            }
+        }
+
+        // Export: the whole history streamed as NDJSON, one line per transaction
+        HttpResponse<String> export = call("GET /api/transactions/export", get("/api/transactions/export", token));
+        return synced && export.body().lines().count() == TRANSACTIONS_PER_ITEM;
+    }
+
+    private HttpResponse<String> call(String endpoint, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        report.record(endpoint, start, System.nanoTime(), response.statusCode() < 400);
+        return response;
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(body != null
+                        ? HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(body))
+                        : HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private JsonNode json(HttpResponse<String> response) {
+        return jsonMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,107 @@
+package com.anshdesai.backend.repository;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class AccountUpsertTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private EntityManager entityManager;
+
+    private PlaidItem item;
+    private String checkingId;
+    private String savingsId;
+
+    @BeforeEach
+    void setUp() {
+        User user = fixtures.user();
+        item = fixtures.item(user);
+        checkingId = "acc-" + UUID.randomUUID();
+        savingsId = "acc-" + UUID.randomUUID();
+        entityManager.flush();
+    }
+
+    @Test
+    void insertsNewAccountsAndReturnsEveryId() {
+        Map<String, UUID> ids = upsert(new BigDecimal[]{new BigDecimal("10.00"), null});
+
+        assertThat(ids).containsOnlyKeys(checkingId, savingsId);
+        entityManager.clear();
+        Account savings = accountRepository.findById(ids.get(savingsId)).orElseThrow();
+        assertThat(savings.getName()).isEqualTo("Savings");
+        assertThat(savings.getBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void updatesChangedBalancesOnlyAndKeepsUnknownOnes() {
+        Map<String, UUID> ids = upsert(new BigDecimal[]{new BigDecimal("10.00"), new BigDecimal("20.00")});
+        String checkingRow = rowVersion(ids.get(checkingId));
+        String savingsRow = rowVersion(ids.get(savingsId));
+
+        Map<String, UUID> again = upsert(new BigDecimal[]{new BigDecimal("10.00"), new BigDecimal("25.00")});
+
+        assertThat(again).isEqualTo(ids);
+        // An unchanged balance is not rewritten; a new row version means an UPDATE happened
+        assertThat(rowVersion(ids.get(checkingId))).isEqualTo(checkingRow);
+        assertThat(rowVersion(ids.get(savingsId))).isNotEqualTo(savingsRow);
+
+        upsert(new BigDecimal[]{null, null});
+        entityManager.clear();
+        assertThat(accountRepository.findById(ids.get(savingsId)).orElseThrow().getBalance())
+                .isEqualByComparingTo("25");
+    }
+
+    @Test
+    void returnsTheItemsStoredAccountsLeftOutOfTheInput() {
+        Map<String, UUID> ids = upsert(new BigDecimal[]{new BigDecimal("10.00"), new BigDecimal("20.00")});
+        fixtures.account(fixtures.item(item.getUser()), "Other");
+        entityManager.flush();
+
+        // Plaid left savings out of this response; its transactions still need it
+        Map<String, UUID> partial = accountRepository.upsertForItem(item.getId(),
+                        new String[]{checkingId}, new String[]{"Checking"}, new String[]{"depository"},
+                        new BigDecimal[]{new BigDecimal("11.00")}).stream()
+                .collect(Collectors.toMap(AccountRepository.AccountId::getPlaidAccountId, AccountRepository.AccountId::getId));
+
+        assertThat(partial).isEqualTo(ids);
+    }
+
+    private Map<String, UUID> upsert(BigDecimal[] balances) {
+        return accountRepository.upsertForItem(item.getId(),
+                        new String[]{checkingId, savingsId},
+                        new String[]{"Checking", "Savings"},
+                        new String[]{"depository", "depository"},
+                        balances).stream()
+                .collect(Collectors.toMap(AccountRepository.AccountId::getPlaidAccountId, AccountRepository.AccountId::getId));
+    }
+
+    // Physical location of the row's current version; changes whenever the row is updated
+    private String rowVersion(UUID accountId) {
+        return (String) entityManager.createNativeQuery("SELECT CAST(ctid AS text) FROM accounts WHERE id = :id")
+                .setParameter("id", accountId)
+                .getSingleResult();
+    }
+}
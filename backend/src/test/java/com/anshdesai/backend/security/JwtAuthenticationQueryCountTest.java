@@ -0,0 +1,112 @@
+package com.anshdesai.backend.security;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Authenticated requests take the user id from the token: no users query per request,
+ * and at most one per cache lifetime when a controller needs the User entity.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+@Import(TestFixtures.class)
+class JwtAuthenticationQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = fixtures.user();
+    }
+
+    @Test
+    void idOnlyEndpointsNeverLoadTheUser() throws Exception {
+        String token = jwtUtils.generateToken(user.getId(), user.getEmail());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/analytics/spending").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3); // the three rollup sums
+    }
+
+    @Test
+    void userEntityComesFromTheCacheAfterFirstUse() throws Exception {
+        String token = jwtUtils.generateToken(user.getId(), user.getEmail());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/categories").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        long first = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/categories").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        long second = statistics.getPrepareStatementCount();
+
+        assertThat(second).isEqualTo(1); // just the categories query
+        assertThat(first).isLessThanOrEqualTo(3); // plus the user and the data version (ETag)
+    }
+
+    @Test
+    void tokensWithoutUserIdClaimStillAuthenticate() throws Exception {
+        String legacyToken = Jwts.builder()
+                .subject(user.getEmail())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        mockMvc.perform(get("/api/categories").header("Authorization", "Bearer " + legacyToken))
+                .andExpect(status().isOk());
+
+        // The email lookup is cached too
+        statistics.clear();
+        mockMvc.perform(get("/api/categories").header("Authorization", "Bearer " + legacyToken))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithoutTokenAreRejected() throws Exception {
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,54 @@
+package com.anshdesai.backend.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-256-bits-long-for-hmac";
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000);
+
+    @Test
+    void parsesOwnTokenIntoPrincipal() {
+        UUID userId = UUID.randomUUID();
+        String token = jwtUtils.generateToken(userId, "user@example.com");
+
+        AuthenticatedUser principal = jwtUtils.toPrincipal(jwtUtils.parseClaims(token).orElseThrow());
+
+        assertThat(principal.id()).isEqualTo(userId);
+        assertThat(principal.email()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void rejectsExpiredTamperedAndForeignTokens() {
+        String expired = new JwtUtils(SECRET, -1_000).generateToken(UUID.randomUUID(), "user@example.com");
+        String foreign = new JwtUtils(SECRET.toUpperCase(), 60_000).generateToken(UUID.randomUUID(), "user@example.com");
+        String token = jwtUtils.generateToken(UUID.randomUUID(), "user@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtils.parseClaims(expired)).isEmpty();
+        assertThat(jwtUtils.parseClaims(foreign)).isEmpty();
+        assertThat(jwtUtils.parseClaims(tampered)).isEmpty();
+        assertThat(jwtUtils.parseClaims("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    void legacyTokenWithoutUserIdHasNoId() {
+        String legacy = Jwts.builder()
+                .subject("user@example.com")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        AuthenticatedUser principal = jwtUtils.toPrincipal(jwtUtils.parseClaims(legacy).orElseThrow());
+
+        assertThat(principal.id()).isNull();
+        assertThat(principal.email()).isEqualTo("user@example.com");
+    }
+}
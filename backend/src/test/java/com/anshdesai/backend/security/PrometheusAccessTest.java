@@ -0,0 +1,51 @@
+package com.anshdesai.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /actuator/prometheus answers only the scrape addresses (loopback by default), while the
+ * health probes stay open to everyone.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PrometheusAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void metricsAreServedToLoopbackOnly() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(from("127.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").with(from("::1")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").with(from("203.0.113.7")))
+                .andExpect(status().isForbidden());
+        // Forwarded headers are not trusted for this check
+        mockMvc.perform(get("/actuator/prometheus").with(from("203.0.113.7"))
+                        .header("X-Forwarded-For", "127.0.0.1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void healthStaysOpenToEveryone() throws Exception {
+        mockMvc.perform(get("/actuator/health").with(from("203.0.113.7")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
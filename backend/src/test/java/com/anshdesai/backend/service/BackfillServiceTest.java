@@ -0,0 +1,164 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.BackfillJob;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.BackfillJobRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import com.plaid.client.model.AccountBalance;
+import com.plaid.client.model.AccountBase;
+import com.plaid.client.model.AccountType;
+import com.plaid.client.model.TransactionsGetRequestOptions;
+import com.plaid.client.model.TransactionsGetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives backfill jobs directly against a Plaid stand-in that serves a fixed history. Not
+ * transactional: every page commits on its own, which is what the checkpointing relies on.
+ */
+@SpringBootTest(properties = {"backfill.enabled=false", "backfill.page-delay-ms=0", "backfill.months=24",
+        "backfill.window-days=400", "backfill.base-backoff-seconds=0"})
+@Import(TestFixtures.class)
+class BackfillServiceTest {
+
+    private static final int HISTORY_SIZE = 1_200;
+
+    @Autowired
+    private BackfillService backfillService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private BackfillJobRepository backfillJobRepository;
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @MockitoBean
+    private PlaidService plaidService;
+
+    private final List<com.plaid.client.model.Transaction> history = new ArrayList<>();
+    private final List<AccountBase> accounts = List.of(new AccountBase()
+            .accountId("acc-" + UUID.randomUUID())
+            .name("Checking")
+            .type(AccountType.DEPOSITORY)
+            .balances(new AccountBalance().current(100.0)));
+
+    private User user;
+    private PlaidItem item;
+
+    @BeforeEach
+    void setUp() {
+        // Newest first, spread over the last two years
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history.add(new com.plaid.client.model.Transaction()
+                    .transactionId("txn-" + UUID.randomUUID())
+                    .accountId(accounts.getFirst().getAccountId())
+                    .amount(1.0 + i)
+                    .date(today.minusDays(i * 730L / HISTORY_SIZE))
+                    .name("Coffee Shop"));
+        }
+
+        user = fixtures.user();
+        item = fixtures.item(user);
+    }
+
+    @Test
+    void failedPageResumesFromCheckpointWithoutDuplicates() {
+        // The first sync already stored the newest transactions
+        transactionSyncService.importHistory(item.getId(), accounts, history.subList(0, 100));
+
+        AtomicInteger calls = new AtomicInteger();
+        when(plaidService.getTransactions(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new PlaidApiException("transactions_get", 400, "INVALID_REQUEST", "INVALID_FIELD", "injected", null);
+            }
+            return page(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+        });
+
+        BackfillJob job = backfillService.start(item.getId());
+        backfillService.runJob(job.getId());
+
+        // Both pages of the first window committed before the third request failed
+        BackfillJob failed = backfillJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(BackfillJob.Status.QUEUED);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getWindowEnd()).isEqualTo(LocalDate.now().minusDays(400));
+        assertThat(failed.getPageOffset()).isZero();
+        long afterFirstRun = transactionRepository.countByUserId(user.getId());
+        assertThat(afterFirstRun).isBetween(101L, (long) HISTORY_SIZE - 1);
+
+        backfillService.runJob(job.getId());
+
+        BackfillJob done = backfillJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(done.getStatus()).isEqualTo(BackfillJob.Status.SUCCEEDED);
+        assertThat(done.getAttempts()).isZero();
+        assertThat(done.getTransactionsAdded()).isEqualTo(HISTORY_SIZE - 100);
+        assertThat(transactionRepository.countByUserId(user.getId())).isEqualTo(HISTORY_SIZE);
+        // Two windows of two pages each, plus the failed request
+        assertThat(calls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void productNotReadyWaitsWithoutCountingAnAttempt() {
+        when(plaidService.getTransactions(anyString(), any(), any(), any())).thenThrow(
+                new PlaidApiException("transactions_get", 400, "ITEM_ERROR", "PRODUCT_NOT_READY", "not ready", null));
+
+        BackfillJob job = backfillService.start(item.getId());
+        backfillService.runJob(job.getId());
+
+        BackfillJob waiting = backfillJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(waiting.getStatus()).isEqualTo(BackfillJob.Status.QUEUED);
+        assertThat(waiting.getAttempts()).isZero();
+        assertThat(waiting.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(waiting.getWindowEnd()).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    void jobClaimedByAnotherRunnerIsLeftAlone() {
+        BackfillJob job = backfillService.start(item.getId());
+        // Another instance is running it, and its claim has not lapsed
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(backfillJobRepository.claim(job.getId(), now, now.plusMinutes(5))).isEqualTo(1);
+
+        backfillService.runJob(job.getId());
+
+        verify(plaidService, never()).getTransactions(anyString(), any(), any(), any());
+        BackfillJob running = backfillJobRepository.findById(job.getId()).orElseThrow();
+        assertThat(running.getStatus()).isEqualTo(BackfillJob.Status.RUNNING);
+        assertThat(running.getWindowEnd()).isEqualTo(LocalDate.now());
+    }
+
+    private TransactionsGetResponse page(LocalDate start, LocalDate end, TransactionsGetRequestOptions options) {
+        List<com.plaid.client.model.Transaction> inWindow = history.stream()
+                .filter(txn -> !txn.getDate().isBefore(start) && !txn.getDate().isAfter(end))
+                .toList();
+        int from = Math.min(options.getOffset(), inWindow.size());
+        int to = Math.min(from + options.getCount(), inWindow.size());
+        return new TransactionsGetResponse()
+                .accounts(accounts)
+                .transactions(inWindow.subList(from, to))
+                .totalTransactions(inWindow.size());
+    }
+}
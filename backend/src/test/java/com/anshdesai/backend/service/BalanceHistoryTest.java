@@ -0,0 +1,107 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.AccountBalanceSnapshot;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.NetWorthInterval;
+import com.anshdesai.backend.payload.NetWorthSeries;
+import com.anshdesai.backend.repository.AccountBalanceSnapshotRepository;
+import com.anshdesai.backend.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class BalanceHistoryTest {
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void monthlySeriesCarriesBalancesForwardAndSubtractsLiabilities() {
+        User user = fixtures.user();
+        PlaidItem item = fixtures.item(user);
+        Account checking = fixtures.account(item, "Checking", "depository", BigDecimal.TEN);
+        Account card = fixtures.account(item, "Card", "credit", BigDecimal.TEN);
+
+        snapshot(user, checking, LocalDate.of(2023, 12, 20), 500);   // before the range, carried in
+        snapshot(user, card, LocalDate.of(2024, 1, 5), 100);
+        snapshot(user, checking, LocalDate.of(2024, 2, 1), 900);
+        snapshot(user, checking, LocalDate.of(2024, 2, 28), 1000);  // last of February wins
+        snapshot(user, card, LocalDate.of(2024, 4, 10), 250);        // March has no snapshots at all
+        entityManager.flush();
+
+        NetWorthSeries series = balanceHistoryService.getNetWorth(user.getId(),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 30), NetWorthInterval.MONTH);
+
+        assertThat(series.getPoints()).extracting(NetWorthSeries.Point::getDate).containsExactly(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1));
+        assertThat(series.getPoints()).extracting(point -> point.getNetWorth().intValue())
+                .containsExactly(400, 900, 900, 750);
+        assertThat(series.getPoints().getLast().getLiabilities()).isEqualByComparingTo("250");
+    }
+
+    @Test
+    void weeklyBucketsStartOnMondayAndSkipTimeBeforeTheFirstSnapshot() {
+        User user = fixtures.user();
+        Account checking = fixtures.account(fixtures.item(user), "Checking", "depository", BigDecimal.TEN);
+        snapshot(user, checking, LocalDate.of(2024, 5, 15), 42);   // a Wednesday
+        entityManager.flush();
+
+        NetWorthSeries series = balanceHistoryService.getNetWorth(user.getId(),
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), NetWorthInterval.WEEK);
+
+        assertThat(series.getPoints()).extracting(NetWorthSeries.Point::getDate).containsExactly(
+                LocalDate.of(2024, 5, 13), LocalDate.of(2024, 5, 20), LocalDate.of(2024, 5, 27));
+    }
+
+    @Test
+    void recordingTwiceADayKeepsTheLatestBalance() {
+        User user = fixtures.user();
+        PlaidItem item = fixtures.item(user);
+        Account checking = fixtures.account(item, "Checking", "depository", BigDecimal.TEN);
+
+        balanceHistoryService.recordBalances(user.getId(), item.getId());
+        checking.setBalance(BigDecimal.valueOf(75));
+        accountRepository.save(checking);
+        balanceHistoryService.recordBalances(user.getId(), item.getId());
+        entityManager.clear();
+
+        List<AccountBalanceSnapshot> snapshots = snapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getAccountId().equals(checking.getId()))
+                .toList();
+        assertThat(snapshots).hasSize(1);
+        assertThat(snapshots.getFirst().getSnapshotDate()).isEqualTo(LocalDate.now());
+        assertThat(snapshots.getFirst().getBalance()).isEqualByComparingTo("75");
+    }
+
+    private void snapshot(User user, Account account, LocalDate date, long balance) {
+        snapshotRepository.save(AccountBalanceSnapshot.builder()
+                .accountId(account.getId())
+                .userId(user.getId())
+                .snapshotDate(date)
+                .balance(BigDecimal.valueOf(balance))
+                .build());
+    }
+}
@@ -0,0 +1,111 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deleting a category must not load or touch transactions one by one: the cost stays
+ * the same whether the table holds a handful of rows or thousands.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@Import(TestFixtures.class)
+class CategoryDeleteQueryCountTest {
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void deleteCostDoesNotGrowWithTableSize() {
+        long small = statementsToDelete(seedCategory(20, 10));
+        long large = statementsToDelete(seedCategory(20, 2_000));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void deleteLeavesTransactionsUncategorized() {
+        Category category = seedCategory(20, 10);
+        UUID userId = category.getUser().getId();
+
+        statementsToDelete(category);
+
+        assertThat(categoryRepository.findById(category.getId())).isEmpty();
+        assertThat(transactionRepository.findViewsByUserId(userId))
+                .hasSize(30)
+                .allSatisfy(view -> assertThat(view.getCategory()).isNull());
+    }
+
+    private long statementsToDelete(Category category) {
+        entityManager.clear();
+        statistics.clear();
+
+        categoryService.deleteCategory(categoryRepository.findById(category.getId()).orElseThrow());
+        entityManager.flush();
+
+        // No transaction is ever materialized; the detach is one UPDATE
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getLoadCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // One category with categorizedCount transactions, plus otherCount uncategorized rows
+    private Category seedCategory(int categorizedCount, int otherCount) {
+        User user = fixtures.user();
+        Account account = fixtures.account(fixtures.item(user), "Checking");
+        Category category = fixtures.category(user, "Food");
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < categorizedCount + otherCount; i++) {
+            transactions.add(fixtures.transaction(account)
+                    .category(i < categorizedCount ? category : null)
+                    .amount(BigDecimal.valueOf(i + 1))
+                    .date(LocalDate.of(2024, 1, 1).plusDays(i % 365))
+                    .description("Transaction " + i)
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        entityManager.flush();
+        return category;
+    }
+}
@@ -0,0 +1,110 @@
+package com.anshdesai.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PlaidFetchExecutorTest {
+
+    private PlaidFetchExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void slowInstitutionOnlyHoldsItsOwnShareOfPermits() throws Exception {
+        // Two fetches in flight overall, at most one per institution
+        executor = new PlaidFetchExecutor(2, 1, 5_000, new PlaidCircuitBreaker(5, 60),
+                new PlaidRateLimiter(1_000, 1_000));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> slow = executor.submit("Slow Bank", () -> {
+            started.countDown();
+            release.await();
+            return "slow";
+        });
+        started.await();
+        CompletableFuture<String> queued = executor.submit("Slow Bank", () -> "queued");
+
+        // The queued Slow Bank fetch waits on its own bulkhead, leaving the second permit free
+        assertThat(executor.submit("Other Bank", () -> "other").get(1, TimeUnit.SECONDS)).isEqualTo("other");
+        assertThat(queued).isNotDone();
+
+        release.countDown();
+        assertThat(slow.get(1, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void openCircuitFailsFastUntilATrialSucceeds() throws Exception {
+        executor = new PlaidFetchExecutor(4, 4, 5_000, new PlaidCircuitBreaker(2, 1),
+                new PlaidRateLimiter(1_000, 1_000));
+        AtomicInteger calls = new AtomicInteger();
+        Callable<String> down = () -> {
+            calls.incrementAndGet();
+            throw new PlaidApiException("transactions_sync", 503, "API_ERROR", "INTERNAL_SERVER_ERROR", null, null);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> executor.submit("Down Bank", down).join())
+                    .hasCauseInstanceOf(PlaidApiException.class);
+        }
+
+        // Open: rejected without calling Plaid, other banks unaffected
+        assertThatThrownBy(() -> executor.submit("Down Bank", down).join()).hasMessageContaining("circuit open");
+        assertThat(calls).hasValue(2);
+        assertThat(executor.submit("Other Bank", () -> "ok").join()).isEqualTo("ok");
+
+        // After open-seconds one trial goes through, and its success closes the circuit
+        Thread.sleep(1_100);
+        assertThat(executor.submit("Down Bank", () -> "back").join()).isEqualTo("back");
+        assertThat(executor.submit("Down Bank", () -> "again").join()).isEqualTo("again");
+    }
+
+    @Test
+    void everyCallReachingPlaidTakesAToken() throws Exception {
+        PlaidRateLimiter rateLimiter = mock(PlaidRateLimiter.class);
+        executor = new PlaidFetchExecutor(4, 4, 5_000, new PlaidCircuitBreaker(1, 60), rateLimiter);
+
+        executor.submit("Bank", () -> "page 1").join();
+        executor.submit("Bank", () -> "page 2").join();
+        assertThatThrownBy(() -> executor.submit("Bank", () -> {
+            throw new PlaidApiException("transactions_sync", 503, "API_ERROR", "INTERNAL_SERVER_ERROR", null, null);
+        }).join()).hasCauseInstanceOf(PlaidApiException.class);
+        // Refused by the now open circuit, so it costs nothing
+        assertThatThrownBy(() -> executor.submit("Bank", () -> "page 3").join()).hasMessageContaining("circuit open");
+
+        verify(rateLimiter, times(3)).acquire();
+    }
+
+    @Test
+    void itemErrorsDoNotOpenTheCircuit() {
+        executor = new PlaidFetchExecutor(4, 4, 5_000, new PlaidCircuitBreaker(2, 60),
+                new PlaidRateLimiter(1_000, 1_000));
+        AtomicInteger calls = new AtomicInteger();
+        Callable<String> loginRequired = () -> {
+            calls.incrementAndGet();
+            throw new PlaidApiException("transactions_sync", 400, "ITEM_ERROR", "ITEM_LOGIN_REQUIRED", null, null);
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> executor.submit("Bank", loginRequired).join())
+                    .hasCauseInstanceOf(PlaidApiException.class);
+        }
+        assertThat(calls).hasValue(3);
+    }
+}
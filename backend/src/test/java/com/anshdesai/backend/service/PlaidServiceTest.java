@@ -0,0 +1,137 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.PlaidRetryInterceptor;
+import com.anshdesai.backend.loadtest.FakePlaidServer;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.plaid.client.ApiClient;
+import com.plaid.client.model.TransactionsSyncResponse;
+import com.plaid.client.request.PlaidApi;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PlaidService over real HTTP against FakePlaidServer, with faults injected per test.
+ */
+class PlaidServiceTest {
+
+    private FakePlaidServer plaid;
+    private SimpleMeterRegistry meterRegistry;
+    private PlaidItemRepository plaidItemRepository;
+    private PlaidService plaidService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        plaid = FakePlaidServer.start(new FakePlaidServer.Settings(1, 10, 3, Duration.ZERO, 0, 42));
+        meterRegistry = new SimpleMeterRegistry();
+
+        OkHttpClient http = new OkHttpClient.Builder()
+                .addInterceptor(new PlaidRetryInterceptor(3, 10, 50, meterRegistry))
+                .build();
+        HashMap<String, String> apiKeys = new HashMap<>();
+        apiKeys.put("clientId", "test-client");
+        apiKeys.put("secret", "test-secret");
+        ApiClient apiClient = new ApiClient(apiKeys);
+        apiClient.configureFromOkclient(http);
+        apiClient.setPlaidAdapter(plaid.baseUrl());
+
+        plaidItemRepository = mock(PlaidItemRepository.class);
+        when(plaidItemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        plaidService = new PlaidService(apiClient.createService(PlaidApi.class), plaidItemRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        plaid.close();
+    }
+
+    @Test
+    void retriesServerErrorsUntilPlaidAnswers() {
+        plaid.failNext(2, 503);
+
+        TransactionsSyncResponse page = plaidService.syncTransactions("access-fake-1", null);
+
+        assertThat(page.getAdded()).hasSize(10);
+        assertThat(plaid.requests()).isEqualTo(3);
+        assertThat(meterRegistry.get("plaid.retries").tag("status", "503").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("plaid.requests").tag("status", "200").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        plaid.failNext(5, 429);
+
+        assertThatThrownBy(() -> plaidService.syncTransactions("access-fake-1", null))
+                .isInstanceOfSatisfying(PlaidApiException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(429);
+                    assertThat(e.getErrorType()).isEqualTo("RATE_LIMIT_EXCEEDED");
+                    // Our rate limit, not the bank's outage
+                    assertThat(e.isOutage()).isFalse();
+                });
+        assertThat(plaid.requests()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryTokenExchange() {
+        plaid.failNext(1, 503);
+
+        // The exchange may have gone through; a second one would fail on the used token
+        assertThatThrownBy(() -> plaidService.exchangePublicToken(User.builder().build(), "public-fake-1", "Bank"))
+                .isInstanceOfSatisfying(PlaidApiException.class, e -> assertThat(e.getStatus()).isEqualTo(503));
+        assertThat(plaid.requests()).isEqualTo(1);
+        assertThat(meterRegistry.find("plaid.retries").counter()).isNull();
+    }
+
+    @Test
+    void keysItemsOnPlaidsInstitutionIdNotTheClientsName() {
+        PlaidItem linked = plaidService.exchangePublicToken(User.builder().build(), "public-fake-1", "Sandbox Bank");
+
+        // Item 1 of the fake's three banks
+        assertThat(linked.getInstitutionName()).isEqualTo("Sandbox Bank");
+        assertThat(linked.getInstitutionId()).isEqualTo("ins_fake_1");
+        assertThat(plaidService.institutionKey(linked)).isEqualTo("ins_fake_1");
+        assertThat(plaid.requests()).isEqualTo(2);
+    }
+
+    @Test
+    void looksUpTheInstitutionOfItemsStoredWithoutOne() {
+        PlaidItem legacy = PlaidItem.builder().id(UUID.randomUUID()).accessToken("access-fake-5")
+                .institutionName("Sandbox Bank").build();
+
+        assertThat(plaidService.institutionKey(legacy)).isEqualTo("ins_fake_2");
+        verify(plaidItemRepository).updateInstitutionId(legacy.getId(), "ins_fake_2");
+
+        // Keyed on the item alone while Plaid can't say, never on the shared name
+        plaid.failNext(1, 400);
+        PlaidItem unknown = PlaidItem.builder().id(UUID.randomUUID()).accessToken("access-fake-6")
+                .institutionName("Sandbox Bank").build();
+        assertThat(plaidService.institutionKey(unknown)).isEqualTo("item:" + unknown.getId());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        plaid.failNext(1, 400);
+
+        assertThatThrownBy(() -> plaidService.syncTransactions("access-fake-1", null))
+                .isInstanceOfSatisfying(PlaidApiException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(400);
+                    assertThat(e.getErrorCode()).isEqualTo("INVALID_FIELD");
+                });
+        assertThat(plaid.requests()).isEqualTo(1);
+    }
+}
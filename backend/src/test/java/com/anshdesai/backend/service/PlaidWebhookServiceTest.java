@@ -0,0 +1,162 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.User;
+import com.plaid.client.model.JWKPublicKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Replays signed webhook payloads the way Plaid delivers them. Not transactional: the sync runs
+ * on a worker thread, which has to see the seeded item.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class PlaidWebhookServiceTest {
+
+    private static final KeyPair SIGNING_KEY = Jwts.SIG.ES256.keyPair().build();
+    private static final String KEY_ID = "test-key";
+
+    @Autowired
+    private PlaidWebhookService plaidWebhookService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PlaidService plaidService;
+    @MockitoBean
+    private SyncScheduler syncScheduler;
+
+    private PlaidItem item;
+
+    @BeforeEach
+    void setUp() {
+        PublicJwk<PublicKey> jwk = Jwks.builder().key(SIGNING_KEY.getPublic()).build();
+        when(plaidService.getWebhookVerificationKey(KEY_ID)).thenReturn(new JWKPublicKey()
+                .kid(KEY_ID)
+                .alg("ES256")
+                .kty("EC")
+                .crv("P-256")
+                .x((String) jwk.get("x"))
+                .y((String) jwk.get("y")));
+
+        User user = fixtures.user();
+        item = fixtures.item(user);
+    }
+
+    @Test
+    void syncUpdateQueuesASyncOfThatItemOnly() throws Exception {
+        byte[] body = payload("TRANSACTIONS", "SYNC_UPDATES_AVAILABLE", item.getItemId());
+
+        mockMvc.perform(post("/api/plaid/webhook")
+                        .header("Plaid-Verification", sign(body, Instant.now()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        verify(syncScheduler, timeout(5_000)).syncItem(argThat(due -> due.getId().equals(item.getId())));
+    }
+
+    @Test
+    void redeliveryIsDroppedAsDuplicate() {
+        byte[] body = payload("TRANSACTIONS", "DEFAULT_UPDATE", item.getItemId());
+        String token = sign(body, Instant.now());
+
+        assertThat(plaidWebhookService.receive(token, body)).isEqualTo(PlaidWebhookService.Outcome.QUEUED);
+        assertThat(plaidWebhookService.receive(token, body)).isEqualTo(PlaidWebhookService.Outcome.DUPLICATE);
+    }
+
+    @Test
+    void unsignedTamperedOrStaleDeliveriesAreRejected() throws Exception {
+        byte[] body = payload("TRANSACTIONS", "SYNC_UPDATES_AVAILABLE", item.getItemId());
+        byte[] tampered = payload("TRANSACTIONS", "SYNC_UPDATES_AVAILABLE", "item-someone-else");
+
+        mockMvc.perform(post("/api/plaid/webhook").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized());
+        assertThat(plaidWebhookService.receive(sign(body, Instant.now()), tampered))
+                .isEqualTo(PlaidWebhookService.Outcome.REJECTED);
+        assertThat(plaidWebhookService.receive(sign(body, Instant.now().minus(Duration.ofMinutes(10))), body))
+                .isEqualTo(PlaidWebhookService.Outcome.REJECTED);
+
+        verify(syncScheduler, never()).syncItem(any());
+    }
+
+    @Test
+    void madeUpKeyIdsNeitherFloodPlaidNorEvictTheRealKey() {
+        byte[] body = payload("ITEM", "ERROR", item.getItemId());
+        assertThat(plaidWebhookService.receive(sign(body, Instant.now()), body))
+                .isEqualTo(PlaidWebhookService.Outcome.IGNORED);
+
+        for (int i = 0; i < 200; i++) {
+            String forged = Jwts.builder()
+                    .header().keyId("forged-" + i).and()
+                    .issuedAt(new Date())
+                    .claim("request_body_sha256", PlaidWebhookVerifier.sha256Hex(body))
+                    .signWith(SIGNING_KEY.getPrivate(), Jwts.SIG.ES256)
+                    .compact();
+            assertThat(plaidWebhookService.receive(forged, body)).isEqualTo(PlaidWebhookService.Outcome.REJECTED);
+        }
+
+        // Only a couple of lookups got through, and the real key is still cached
+        verify(plaidService, atMost(10)).getWebhookVerificationKey(startsWith("forged-"));
+        assertThat(plaidWebhookService.receive(sign(body, Instant.now()), body))
+                .isEqualTo(PlaidWebhookService.Outcome.IGNORED);
+        verify(plaidService, atMost(1)).getWebhookVerificationKey(KEY_ID);
+    }
+
+    @Test
+    void otherEventsAreAcknowledgedWithoutSyncing() {
+        byte[] body = payload("ITEM", "ERROR", item.getItemId());
+
+        assertThat(plaidWebhookService.receive(sign(body, Instant.now()), body))
+                .isEqualTo(PlaidWebhookService.Outcome.IGNORED);
+    }
+
+    private static byte[] payload(String type, String code, String itemId) {
+        return ("{\"webhook_type\":\"" + type + "\",\"webhook_code\":\"" + code + "\",\"item_id\":\"" + itemId
+                + "\",\"initial_update_complete\":true,\"historical_update_complete\":true,\"environment\":\"sandbox\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sign(byte[] body, Instant issuedAt) {
+        return Jwts.builder()
+                .header().keyId(KEY_ID).and()
+                .issuedAt(Date.from(issuedAt))
+                .claim("request_body_sha256", PlaidWebhookVerifier.sha256Hex(body))
+                .signWith(SIGNING_KEY.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+    }
+}
@@ -0,0 +1,165 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.RecategorizationJob;
+import com.anshdesai.backend.payload.SpendingSummary;
+import com.anshdesai.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Runs a real re-categorization over several chunks; the job commits as it goes,
+ * so the seeded user is removed afterwards instead of rolled back.
+ */
+@SpringBootTest(properties = "rules.apply.chunk-size=100")
+@Import(TestFixtures.class)
+class RecategorizationServiceTest {
+
+    @Autowired
+    private RecategorizationService recategorizationService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private CategorizationRuleService categorizationRuleService;
+    @Autowired
+    private SpendingRollupService spendingRollupService;
+    @MockitoSpyBean
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @AfterEach
+    void tearDown() {
+        if (user != null) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+    }
+
+    @Test
+    void appliesRulesAcrossChunksAndLeavesUnmatchedRowsAlone() throws InterruptedException {
+        user = fixtures.user();
+        Category shopping = fixtures.category(user, "Shopping");
+        Category coffee = fixtures.category(user, "Coffee");
+        Category travel = fixtures.category(user, "Travel");
+        Account account = fixtures.account(fixtures.item(user), "Checking");
+
+        // 250 coffee rows filed under Shopping, 100 airline rows already right, 50 rows no rule matches
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String description = i < 250 ? "STARBUCKS #" + i : i < 350 ? "DELTA AIR " + i : "Rent " + i;
+            transactions.add(fixtures.transaction(account)
+                    .category(i < 350 && i >= 250 ? travel : shopping)
+                    .amount(BigDecimal.ONE)
+                    .date(LocalDate.of(2024, 1 + i % 3, 1))
+                    .description(description)
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+        spendingRollupService.refreshMonths(user.getId(), List.of(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1)));
+
+        categorizationRuleService.createRule(user, "starbucks", coffee.getId(), 0, CategorizationRule.MatchType.CONTAINS);
+        categorizationRuleService.createRule(user, "delta", travel.getId(), 0, CategorizationRule.MatchType.STARTS_WITH);
+
+        RecategorizationJob job = awaitFinished(recategorizationService.enqueue(user.getId()).getId());
+
+        assertThat(job.getStatus()).isEqualTo(RecategorizationJob.Status.SUCCEEDED);
+        assertThat(job.getTotalRows()).isEqualTo(400);
+        assertThat(job.getRowsScanned()).isEqualTo(400);
+        assertThat(job.getRowsChanged()).isEqualTo(250);
+
+        Map<String, Long> byCategory = transactionRepository.findViewsByUserId(user.getId()).stream()
+                .collect(Collectors.groupingBy(view -> view.getCategory().getName(), Collectors.counting()));
+        assertThat(byCategory).containsExactlyInAnyOrderEntriesOf(Map.of("Coffee", 250L, "Travel", 100L, "Shopping", 50L));
+
+        // Rollup follows the moved rows
+        SpendingSummary summary = spendingRollupService.getSummary(user.getId(), null, null);
+        assertThat(summary.getByCategory())
+                .filteredOn(total -> "Coffee".equals(total.getName()))
+                .singleElement()
+                .satisfies(total -> assertThat(total.getTransactionCount()).isEqualTo(250));
+    }
+
+    @Test
+    void failedJobStillPublishesTheChunksItCommitted() throws InterruptedException {
+        user = fixtures.user();
+        Category shopping = fixtures.category(user, "Shopping");
+        Category coffee = fixtures.category(user, "Coffee");
+        Account account = fixtures.account(fixtures.item(user), "Checking");
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            transactions.add(fixtures.transaction(account)
+                    .category(shopping)
+                    .amount(BigDecimal.ONE)
+                    .date(LocalDate.of(2024, 1, 1))
+                    .description("STARBUCKS #" + i)
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+        spendingRollupService.refreshMonths(user.getId(), List.of(LocalDate.of(2024, 1, 1)));
+        categorizationRuleService.createRule(user, "starbucks", coffee.getId(), 0, CategorizationRule.MatchType.CONTAINS);
+        long versionBefore = dataVersion();
+
+        // The second chunk's read fails, after the first chunk committed
+        List<TransactionRepository.CategorizationCandidate> firstChunk = transactionRepository.findCategorizationChunk(
+                account.getId(), new UUID(0L, 0L), Limit.of(100));
+        doReturn(firstChunk)
+                .doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(transactionRepository).findCategorizationChunk(eq(account.getId()), any(), any());
+
+        RecategorizationJob job = awaitFinished(recategorizationService.enqueue(user.getId()).getId());
+
+        assertThat(job.getStatus()).isEqualTo(RecategorizationJob.Status.FAILED);
+        assertThat(job.getRowsChanged()).isEqualTo(100);
+        SpendingSummary summary = spendingRollupService.getSummary(user.getId(), null, null);
+        assertThat(summary.getByCategory())
+                .filteredOn(total -> "Coffee".equals(total.getName()))
+                .singleElement()
+                .satisfies(total -> assertThat(total.getTransactionCount()).isEqualTo(100));
+        assertThat(dataVersion()).isGreaterThan(versionBefore);
+    }
+
+    private long dataVersion() {
+        return jdbcTemplate.queryForObject("SELECT data_version FROM users WHERE id = ?", Long.class, user.getId());
+    }
+
+    private RecategorizationJob awaitFinished(UUID jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            RecategorizationJob job = recategorizationService.getJob(user.getId(), jobId).orElseThrow();
+            if (job.getStatus() == RecategorizationJob.Status.SUCCEEDED
+                    || job.getStatus() == RecategorizationJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Re-categorization did not finish");
+    }
+}
@@ -0,0 +1,83 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.CategorizationRule.MatchType;
+import com.anshdesai.backend.model.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleMatcherTest {
+
+    private final Category food = category();
+    private final Category travel = category();
+    private final Category coffee = category();
+
+    @Test
+    void matchesEachTypeCaseInsensitively() {
+        RuleMatcher matcher = RuleMatcher.compile(List.of(
+                rule("UBER TRIP", MatchType.EXACT, travel, 0),
+                rule("delta", MatchType.STARTS_WITH, travel, 0),
+                rule("starbucks", MatchType.CONTAINS, coffee, 0),
+                rule("^sq \\*.*bakery$", MatchType.REGEX, food, 0)));
+
+        assertThat(matcher.match("uber trip")).isEqualTo(travel.getId());
+        assertThat(matcher.match("Uber Trip Help")).isNull();
+        assertThat(matcher.match("DELTA AIR 0062")).isEqualTo(travel.getId());
+        assertThat(matcher.match("Air Delta")).isNull();
+        assertThat(matcher.match("POS STARBUCKS #1234")).isEqualTo(coffee.getId());
+        assertThat(matcher.match("SQ *CORNER BAKERY")).isEqualTo(food.getId());
+        assertThat(matcher.match("Rent")).isNull();
+        assertThat(matcher.match(null)).isNull();
+    }
+
+    @Test
+    void highestPriorityWinsAcrossMatchTypes() {
+        RuleMatcher matcher = RuleMatcher.compile(List.of(
+                rule("coffee", MatchType.CONTAINS, coffee, 1),
+                rule("airport", MatchType.CONTAINS, travel, 5),
+                rule("AIRPORT COFFEE", MatchType.STARTS_WITH, food, 3),
+                rule(".*", MatchType.REGEX, food, -1)));
+
+        assertThat(matcher.match("Airport Coffee Bar")).isEqualTo(travel.getId());
+        assertThat(matcher.match("Morning Coffee")).isEqualTo(coffee.getId());
+        assertThat(matcher.match("Anything else")).isEqualTo(food.getId());
+    }
+
+    @Test
+    void findsOverlappingAndNestedKeywords() {
+        // Classic Aho-Corasick case: "she" ends inside "ushers", "he" is a suffix of "she"
+        RuleMatcher matcher = RuleMatcher.compile(List.of(
+                rule("hers", MatchType.CONTAINS, food, 1),
+                rule("he", MatchType.CONTAINS, coffee, 0),
+                rule("she", MatchType.CONTAINS, travel, 2),
+                rule("his", MatchType.CONTAINS, food, 3)));
+
+        assertThat(matcher.match("ushers")).isEqualTo(travel.getId());
+        assertThat(matcher.match("ahishers")).isEqualTo(food.getId());
+        assertThat(matcher.match("the")).isEqualTo(coffee.getId());
+        assertThat(matcher.match("xyz")).isNull();
+    }
+
+    @Test
+    void emptyRulesNeverMatch() {
+        assertThat(RuleMatcher.EMPTY.isEmpty()).isTrue();
+        assertThat(RuleMatcher.EMPTY.match("Coffee")).isNull();
+    }
+
+    private static CategorizationRule rule(String keyword, MatchType type, Category category, int priority) {
+        return CategorizationRule.builder()
+                .keyword(keyword)
+                .matchType(type)
+                .category(category)
+                .priority(priority)
+                .build();
+    }
+
+    private static Category category() {
+        return Category.builder().id(UUID.randomUUID()).name("c").build();
+    }
+}
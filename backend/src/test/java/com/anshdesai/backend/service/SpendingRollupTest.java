@@ -0,0 +1,217 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.SpendingSummary;
+import com.anshdesai.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks spending_rollup against the transactions it summarizes: after refreshes of the
+ * months a change touched, and as seeded by the V8 migration.
+ */
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class SpendingRollupTest {
+
+    @Autowired
+    private SpendingRollupService spendingRollupService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Account checking;
+    private Account card;
+    private Category food;
+    private final List<Transaction> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.user();
+        PlaidItem item = fixtures.item(user);
+        checking = fixtures.account(item, "Checking");
+        card = fixtures.account(item, "Card");
+        food = fixtures.category(user, "Food");
+
+        // Both edges of each month, refunds (negative) and uncategorized rows
+        for (int i = 0; i < 30; i++) {
+            LocalDate month = LocalDate.of(2024, 1 + i % 3, 1);
+            seeded.add(transactionRepository.save(fixtures.transaction(i % 2 == 0 ? checking : card)
+                    .category(i % 3 == 1 ? null : food)
+                    .amount(i % 5 == 0 ? BigDecimal.valueOf(-10) : new BigDecimal(i + ".25"))
+                    .date(i % 2 == 0 ? month : month.withDayOfMonth(month.lengthOfMonth()))
+                    .description("Row " + i)
+                    .build()));
+        }
+        transactionRepository.flush();
+    }
+
+    @Test
+    void refreshedMonthsMatchTheirTransactions() {
+        spendingRollupService.refreshMonths(user.getId(), seeded.stream().map(Transaction::getDate).toList());
+        assertMatchesTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+
+        // Change February only: a new amount, a new category, a deletion and a row moved in from March
+        Transaction repriced = inMonth(2).getFirst();
+        repriced.setAmount(new BigDecimal("99.99"));
+        Transaction recategorized = inMonth(2).get(1);
+        recategorized.setCategory(recategorized.getCategory() == null ? food : null);
+        Transaction deleted = inMonth(2).get(2);
+        transactionRepository.delete(deleted);
+        seeded.remove(deleted);
+        Transaction moved = inMonth(3).stream().filter(txn -> txn.getAmount().signum() > 0).findFirst().orElseThrow();
+        LocalDate movedFrom = moved.getDate();
+        moved.setDate(LocalDate.of(2024, 2, 15));
+        transactionRepository.flush();
+
+        spendingRollupService.refreshMonths(user.getId(), List.of(repriced.getDate(), movedFrom));
+
+        assertMatchesTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+        assertMatchesTransactions(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+    }
+
+    // Committed rows, so the refreshes below see the same data from their own transactions
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentRefreshesOfAMonthDoNotDoubleCountIt() throws Exception {
+        List<LocalDate> january = List.of(LocalDate.of(2024, 1, 1));
+        CountDownLatch firstRefreshed = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+
+        // The first refresh holds its transaction open until the second one has started its own
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            spendingRollupService.refreshMonths(user.getId(), january);
+            firstRefreshed.countDown();
+            try {
+                secondStarted.await(10, TimeUnit.SECONDS);
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            try {
+                firstRefreshed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            secondStarted.countDown();
+            transactionTemplate.executeWithoutResult(status -> spendingRollupService.refreshMonths(user.getId(), january));
+        });
+        CompletableFuture.allOf(first, second).get(30, TimeUnit.SECONDS);
+
+        assertMatchesTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+    }
+
+    @Test
+    void migrationSeedMatchesARefresh() throws IOException {
+        jdbcTemplate.update(seedStatement());
+        List<Map<String, Object>> seededRows = rollupRows();
+
+        jdbcTemplate.update("DELETE FROM spending_rollup WHERE user_id = ?", user.getId());
+        spendingRollupService.refreshMonths(user.getId(), seeded.stream().map(Transaction::getDate).toList());
+
+        assertThat(seededRows).isNotEmpty().containsExactlyElementsOf(rollupRows());
+    }
+
+    private void assertMatchesTransactions(LocalDate from, LocalDate to) {
+        List<Transaction> spending = seeded.stream()
+                .filter(txn -> txn.getAmount().signum() > 0)
+                .filter(txn -> !txn.getDate().isBefore(from) && !txn.getDate().isAfter(to))
+                .toList();
+        SpendingSummary summary = spendingRollupService.getSummary(user.getId(), from, to);
+
+        assertThat(summary.getTotal()).isEqualByComparingTo(sum(spending, txn -> true));
+        assertThat(summary.getByMonth()).allSatisfy(month -> assertThat(month.getTotal())
+                .isEqualByComparingTo(sum(spending, txn -> txn.getDate().withDayOfMonth(1).equals(month.getMonth()))));
+        assertThat(summary.getByAccount()).allSatisfy(account -> assertThat(account.getTotal())
+                .isEqualByComparingTo(sum(spending, txn -> txn.getAccount().getId().equals(account.getAccountId()))));
+        assertThat(summary.getByCategory()).allSatisfy(category -> assertThat(category.getTotal())
+                .isEqualByComparingTo(sum(spending, txn -> Objects.equals(categoryId(txn), category.getCategoryId()))));
+
+        assertThat(summary.getByMonth()).extracting(SpendingSummary.MonthTotal::getTransactionCount)
+                .containsExactlyElementsOf(spending.stream()
+                        .collect(Collectors.groupingBy(txn -> txn.getDate().withDayOfMonth(1),
+                                TreeMap::new, Collectors.counting()))
+                        .values());
+        assertThat(summary.getByCategory()).extracting(SpendingSummary.CategoryTotal::getCategoryId)
+                .containsExactlyInAnyOrderElementsOf(distinct(spending, this::categoryId));
+        assertThat(summary.getByAccount()).extracting(SpendingSummary.AccountTotal::getAccountId)
+                .containsExactlyInAnyOrderElementsOf(distinct(spending, txn -> txn.getAccount().getId()));
+    }
+
+    // The INSERT that seeds the rollup from existing history, as the migration ran it
+    private static String seedStatement() throws IOException {
+        String migration = new ClassPathResource("db/migration/V8__create_spending_rollup.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        String seed = migration.substring(migration.indexOf("INSERT INTO spending_rollup"));
+        return seed.substring(0, seed.lastIndexOf(';'));
+    }
+
+    private List<Map<String, Object>> rollupRows() {
+        return jdbcTemplate.queryForList("SELECT month, account_id, category_id, total, transaction_count " +
+                "FROM spending_rollup WHERE user_id = ? " +
+                "ORDER BY month, account_id, category_id NULLS FIRST", user.getId());
+    }
+
+    private List<Transaction> inMonth(int month) {
+        return seeded.stream().filter(txn -> txn.getDate().getMonthValue() == month).toList();
+    }
+
+    private UUID categoryId(Transaction txn) {
+        return txn.getCategory() != null ? txn.getCategory().getId() : null;
+    }
+
+    private static BigDecimal sum(List<Transaction> rows, Predicate<Transaction> filter) {
+        return rows.stream().filter(filter).map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static <T> List<T> distinct(List<Transaction> rows, Function<Transaction, T> key) {
+        return rows.stream().map(key).distinct().toList();
+    }
+}
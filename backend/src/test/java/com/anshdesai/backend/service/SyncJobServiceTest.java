@@ -0,0 +1,167 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.controller.TransactionsController;
+import com.anshdesai.backend.model.SyncJob;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.SyncJobRepository;
+import com.anshdesai.backend.repository.UserRepository;
+import com.anshdesai.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncJobServiceTest {
+
+    private SyncJobRepository syncJobRepository;
+    private UserRepository userRepository;
+    private TransactionSyncService transactionSyncService;
+    private SyncJobService syncJobService;
+
+    // Held by every sync until the test lets it finish
+    private final CountDownLatch release = new CountDownLatch(1);
+    // Copies of every job as it was saved; the service keeps mutating the live ones
+    private final List<SyncJob> saved = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        syncJobRepository = mock(SyncJobRepository.class);
+        userRepository = mock(UserRepository.class);
+        transactionSyncService = mock(TransactionSyncService.class);
+
+        when(syncJobRepository.save(any())).thenAnswer(invocation -> {
+            SyncJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            saved.add(job.toBuilder().build());
+            return job;
+        });
+        when(userRepository.findById(any())).thenAnswer(invocation ->
+                Optional.of(User.builder().id(invocation.getArgument(0)).email("test@example.com").build()));
+        when(transactionSyncService.syncTransactions(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            SyncProgressListener progress = invocation.getArgument(1);
+            progress.onItemsFound(1);
+            progress.onItemSynced(UUID.randomUUID(), 5);
+            return 5;
+        });
+
+        // One worker and one queue slot: a running job and a waiting one fill it
+        syncJobService = new SyncJobService(syncJobRepository, userRepository, transactionSyncService);
+        ReflectionTestUtils.setField(syncJobService, "workers", 1);
+        ReflectionTestUtils.setField(syncJobService, "queueCapacity", 1);
+        syncJobService.startWorkers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        syncJobService.stopWorkers();
+    }
+
+    @Test
+    void secondRequestJoinsTheUsersActiveJob() {
+        UUID userId = UUID.randomUUID();
+
+        SyncJob first = syncJobService.enqueue(userId);
+        SyncJob second = syncJobService.enqueue(userId);
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        release.countDown();
+        verify(transactionSyncService, timeout(5_000)).syncTransactions(argThat(user -> user.getId().equals(userId)), any());
+        awaitSaved(job -> job.getId().equals(first.getId())
+                && job.getStatus() == SyncJob.Status.SUCCEEDED
+                && job.getTransactionsAdded() == 5);
+    }
+
+    @Test
+    void fullQueueRejectsTheJobAndRecordsItFailed() {
+        syncJobService.enqueue(UUID.randomUUID());
+        // Wait for the worker to pick it up so the next one takes the only queue slot
+        verify(transactionSyncService, timeout(5_000)).syncTransactions(any(), any());
+        syncJobService.enqueue(UUID.randomUUID());
+
+        UUID rejectedUser = UUID.randomUUID();
+        assertThatThrownBy(() -> syncJobService.enqueue(rejectedUser)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(saved).anyMatch(job -> job.getUserId().equals(rejectedUser)
+                && job.getStatus() == SyncJob.Status.FAILED
+                && "Sync queue is full".equals(job.getError()));
+
+        // The user is not left joined to the rejected job
+        release.countDown();
+        verify(transactionSyncService, timeout(5_000).times(2)).syncTransactions(any(), any());
+        assertThat(syncJobService.enqueue(rejectedUser).getStatus()).isNotEqualTo(SyncJob.Status.FAILED);
+    }
+
+    @Test
+    void fullQueueIsServedAs503WithRetryAfter() {
+        SyncJobService full = mock(SyncJobService.class);
+        when(full.enqueue(any())).thenThrow(new RejectedExecutionException("full"));
+        TransactionsController controller = new TransactionsController(full, mock(TransactionService.class),
+                mock(TransactionExportService.class), mock(DataVersionService.class), mock(UserCache.class));
+
+        ResponseEntity<SyncJob> response = controller.syncTransactions(
+                new AuthenticatedUser(UUID.randomUUID(), "test@example.com"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+    }
+
+    @Test
+    void unfinishedJobsAreResumedOnceEachAfterARestart() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        SyncJob interrupted = job(alice, SyncJob.Status.RUNNING);
+        SyncJob duplicate = job(alice, SyncJob.Status.QUEUED);
+        SyncJob waiting = job(bob, SyncJob.Status.QUEUED);
+        when(syncJobRepository.findByStatusInOrderByCreatedAt(anyCollection()))
+                .thenReturn(List.of(interrupted, duplicate, waiting));
+
+        syncJobService.resumeUnfinishedJobs();
+
+        assertThat(saved).anyMatch(job -> job.getId().equals(duplicate.getId())
+                && job.getStatus() == SyncJob.Status.FAILED);
+        assertThat(syncJobService.getJob(alice, interrupted.getId())).isPresent();
+        assertThat(syncJobService.getJob(bob, waiting.getId())).isPresent();
+
+        release.countDown();
+        verify(transactionSyncService, timeout(5_000)).syncTransactions(argThat(user -> user.getId().equals(alice)), any());
+        verify(transactionSyncService, timeout(5_000)).syncTransactions(argThat(user -> user.getId().equals(bob)), any());
+        awaitSaved(job -> job.getId().equals(interrupted.getId()) && job.getStatus() == SyncJob.Status.SUCCEEDED);
+    }
+
+    private void awaitSaved(Predicate<SyncJob> expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (saved.stream().noneMatch(expected) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(saved).anyMatch(expected);
+    }
+
+    private static SyncJob job(UUID userId, SyncJob.Status status) {
+        return SyncJob.builder().id(UUID.randomUUID()).userId(userId).status(status).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyncSchedulerTest {
+
+    @Test
+    void interleavesDueItemsAcrossUsers() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        PlaidItemRepository.DueItem a1 = dueItem(alice);
+        PlaidItemRepository.DueItem a2 = dueItem(alice);
+        PlaidItemRepository.DueItem a3 = dueItem(alice);
+        PlaidItemRepository.DueItem b1 = dueItem(bob);
+
+        List<PlaidItemRepository.DueItem> ordered = SyncScheduler.interleaveByUser(List.of(a1, a2, a3, b1));
+
+        assertThat(ordered).containsExactly(a1, b1, a2, a3);
+    }
+
+    private PlaidItemRepository.DueItem dueItem(UUID userId) {
+        UUID id = UUID.randomUUID();
+        return new PlaidItemRepository.DueItem() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public int getSyncFailures() {
+                return 0;
+            }
+        };
+    }
+}
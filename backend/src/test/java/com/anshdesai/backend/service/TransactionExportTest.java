@@ -0,0 +1,97 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.TransactionExportFormat;
+import com.anshdesai.backend.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class TransactionExportTest {
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void ndjsonHasOneObjectPerLineNewestFirst() throws Exception {
+        User user = seedUser("Coffee", "Groceries", "Rent");
+        seedUser("Someone else's rent");
+
+        List<String> lines = export(user, TransactionExportFormat.NDJSON).lines().toList();
+
+        assertThat(lines).hasSize(3);
+        JsonNode newest = jsonMapper.readTree(lines.getFirst());
+        assertThat(newest.path("description").stringValue()).isEqualTo("Rent");
+        assertThat(newest.path("category").path("name").stringValue()).isEqualTo("Bills");
+        assertThat(newest.path("account").path("name").stringValue()).isEqualTo("Checking");
+    }
+
+    @Test
+    void csvQuotesSpecialCharactersAndDefusesFormulas() throws Exception {
+        User user = seedUser("Plain", "Acme, \"Inc\"", "=HYPERLINK(\"http://evil\")", "\t=1+1", "\r=1+1");
+
+        // Split on the record separator only: the CR row keeps its CR inside quotes
+        List<String> lines = List.of(export(user, TransactionExportFormat.CSV).split("\r\n"));
+
+        assertThat(lines).hasSize(6);
+        assertThat(lines.getFirst()).isEqualTo(TransactionExportService.CSV_HEADER);
+        assertThat(lines.get(1)).startsWith("2024-01-05,5.00,\"'\r=1+1\",Bills,Checking,");
+        assertThat(lines.get(2)).startsWith("2024-01-04,4.00,'\t=1+1,Bills,Checking,");
+        assertThat(lines.get(3)).startsWith("2024-01-03,3.00,\"'=HYPERLINK(\"\"http://evil\"\")\",Bills,Checking,");
+        assertThat(lines.get(4)).startsWith("2024-01-02,2.00,\"Acme, \"\"Inc\"\"\",Bills,Checking,");
+        assertThat(lines.get(5)).startsWith("2024-01-01,1.00,Plain,Bills,Checking,");
+    }
+
+    private String export(User user, TransactionExportFormat format) throws Exception {
+        entityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(user.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // One transaction per description, one day apart, oldest first
+    private User seedUser(String... descriptions) {
+        User user = fixtures.user();
+        Account account = fixtures.account(fixtures.item(user), "Checking");
+        Category category = fixtures.category(user, "Bills");
+
+        for (int i = 0; i < descriptions.length; i++) {
+            transactionRepository.save(fixtures.transaction(account)
+                    .category(category)
+                    .amount(BigDecimal.valueOf(i + 1))
+                    .date(LocalDate.of(2024, 1, 1).plusDays(i))
+                    .description(descriptions[i])
+                    .build());
+        }
+
+        entityManager.flush();
+        return user;
+    }
+}
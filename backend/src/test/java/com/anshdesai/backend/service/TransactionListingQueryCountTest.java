@@ -0,0 +1,122 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.TestFixtures;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.payload.TransactionFilter;
+import com.anshdesai.backend.payload.TransactionView;
+import com.anshdesai.backend.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression guard against N+1 lazy loading: listing transactions (and serializing the
+ * result) must cost the same number of statements no matter how many rows come back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@Import(TestFixtures.class)
+class TransactionListingQueryCountTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingCostsOneStatementRegardlessOfRowCount() {
+        User small = seedUser(5);
+        User large = seedUser(100);
+
+        assertThat(statementsToList(small)).isEqualTo(1);
+        assertThat(statementsToList(large)).isEqualTo(1);
+    }
+
+    @Test
+    void pageCostsOneStatementRegardlessOfPageSize() {
+        User user = seedUser(100);
+
+        assertThat(statementsToPage(user, 10)).isEqualTo(1);
+        assertThat(statementsToPage(user, 100)).isEqualTo(1);
+    }
+
+    private long statementsToList(User user) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<TransactionView> views = transactionService.getTransactions(user);
+        String json = jsonMapper.writeValueAsString(views);
+
+        assertThat(json).contains("\"account\":{");
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long statementsToPage(User user, int limit) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<TransactionView> views = transactionService
+                .getTransactionPage(user, new TransactionFilter(), null, limit)
+                .getItems();
+        jsonMapper.writeValueAsString(views);
+
+        assertThat(views).hasSize(limit);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User seedUser(int transactionCount) {
+        User user = fixtures.user();
+        PlaidItem item = fixtures.item(user);
+
+        // Spread rows over several accounts and categories so lazy loading would show up
+        List<Account> accounts = List.of(fixtures.account(item, "Checking"), fixtures.account(item, "Savings"),
+                fixtures.account(item, "Credit"));
+        List<Category> categories = List.of(fixtures.category(user, "Food"), fixtures.category(user, "Travel"),
+                fixtures.category(user, "Rent"));
+
+        for (int i = 0; i < transactionCount; i++) {
+            transactionRepository.save(fixtures.transaction(accounts.get(i % accounts.size()))
+                    .category(i % 4 == 0 ? null : categories.get(i % categories.size()))
+                    .amount(BigDecimal.valueOf(i + 1))
+                    .date(LocalDate.of(2024, 1, 1).plusDays(i))
+                    .description("Transaction " + i)
+                    .build());
+        }
+
+        entityManager.flush();
+        return user;
+    }
+}
@@ -0,0 +1,388 @@
+package com.anshdesai.backend.service;
+
+import com.anshdesai.backend.config.StatementCounter;
+import com.anshdesai.backend.model.Account;
+import com.anshdesai.backend.model.CategorizationRule;
+import com.anshdesai.backend.model.Category;
+import com.anshdesai.backend.model.PlaidItem;
+import com.anshdesai.backend.model.Transaction;
+import com.anshdesai.backend.model.User;
+import com.anshdesai.backend.repository.AccountRepository;
+import com.anshdesai.backend.repository.CategoryRepository;
+import com.anshdesai.backend.repository.PlaidItemRepository;
+import com.anshdesai.backend.repository.TransactionRepository;
+import com.plaid.client.model.PersonalFinanceCategory;
+import com.plaid.client.model.RemovedTransaction;
+import com.plaid.client.model.TransactionsSyncResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionSyncServiceTest {
+
+    private PlaidService plaidService;
+    private PlaidItemRepository plaidItemRepository;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private CategoryRepository categoryRepository;
+    private CategorizationRuleService categorizationRuleService;
+    private SimpleMeterRegistry meterRegistry;
+    private PlatformTransactionManager transactionManager;
+    private TransactionSyncService syncService;
+
+    private User user;
+    private PlaidItem plaidItem;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        plaidService = mock(PlaidService.class);
+        plaidItemRepository = mock(PlaidItemRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        categorizationRuleService = mock(CategorizationRuleService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = mock(PlatformTransactionManager.class);
+        syncService = new TransactionSyncService(plaidService, plaidItemRepository, accountRepository,
+                transactionRepository, categoryRepository,
+                new PlaidFetchExecutor(4, 4, 5_000, new PlaidCircuitBreaker(5, 60), new PlaidRateLimiter(1_000, 1_000)),
+                mock(SpendingRollupService.class), categorizationRuleService,
+                new SyncMetrics(meterRegistry, new StatementCounter()), mock(DataVersionService.class),
+                mock(BalanceHistoryService.class), new TransactionTemplate(transactionManager));
+
+        user = User.builder().id(UUID.randomUUID()).email("test@example.com").build();
+        plaidItem = PlaidItem.builder().id(UUID.randomUUID()).user(user).accessToken("access-token").build();
+        account = Account.builder().id(UUID.randomUUID()).plaidItem(plaidItem).plaidAccountId("acc-1")
+                .name("Checking").type("depository").balance(BigDecimal.TEN).build();
+
+        when(plaidItemRepository.findByUser(user)).thenReturn(List.of(plaidItem));
+        when(accountRepository.findByPlaidItem(plaidItem)).thenReturn(List.of(account));
+        when(categorizationRuleService.matcherFor(user.getId())).thenReturn(RuleMatcher.EMPTY);
+    }
+
+    @Test
+    void pagesUntilHasMoreIsFalseAndStoresCursor() {
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-1", 12.5)))
+                .modified(List.of())
+                .removed(List.of())
+                .nextCursor("cursor-1")
+                .hasMore(true));
+        when(plaidService.syncTransactions("access-token", "cursor-1")).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-2", 3.0)))
+                .modified(List.of())
+                .removed(List.of(new RemovedTransaction().transactionId("txn-old")))
+                .nextCursor("cursor-2")
+                .hasMore(false));
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of());
+
+        int saved = syncService.syncTransactions(user);
+
+        assertThat(saved).isEqualTo(2);
+        verify(transactionRepository).deleteByPlaidTransactionIds(List.of("txn-old"));
+        // Each page is committed on its own; the cursor only moves with the last one
+        verify(plaidItemRepository).markSynced(eq(plaidItem.getId()), eq("cursor-2"), any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void failedPageKeepsTheCommittedPagesButNotTheirCursor() {
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-1", 12.5)))
+                .nextCursor("cursor-1")
+                .hasMore(true));
+        when(plaidService.syncTransactions("access-token", "cursor-1")).thenThrow(new RuntimeException("INTERNAL_SERVER_ERROR"));
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of());
+
+        List<Integer> reported = new ArrayList<>();
+        int saved = syncService.syncTransactions(user, new SyncProgressListener() {
+            @Override
+            public void onItemFailed(UUID plaidItemId, int transactionsAdded, String error) {
+                reported.add(transactionsAdded);
+            }
+        });
+
+        // The first page's row stays, and is reported even though the item failed
+        assertThat(saved).isEqualTo(1);
+        assertThat(reported).containsExactly(1);
+        assertThat(count("sync.items", "outcome", "failure")).isEqualTo(1);
+        verify(transactionRepository).saveAll(anyCollection());
+        verify(plaidItemRepository, never()).markSynced(any(), any(), any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void mutationDuringPaginationRestartsFromTheStartCursor() {
+        plaidItem.setTransactionsCursor("cursor-0");
+        when(plaidService.syncTransactions("access-token", "cursor-0")).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-1", 12.5)))
+                .nextCursor("cursor-1")
+                .hasMore(true));
+        when(plaidService.syncTransactions("access-token", "cursor-1"))
+                .thenThrow(new PlaidApiException("transactions_sync", 400, "TRANSACTIONS_ERROR",
+                        "TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION", "mutated", null))
+                .thenReturn(new TransactionsSyncResponse()
+                        .added(List.of(plaidTransaction("txn-2", 3.0)))
+                        .nextCursor("cursor-2")
+                        .hasMore(false));
+        // txn-1 is stored by the first pass over page 1
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("txn-1"))
+                .thenReturn(Set.of());
+
+        int saved = syncService.syncTransactions(user);
+
+        assertThat(saved).isEqualTo(2);
+        verify(plaidService, times(2)).syncTransactions("access-token", "cursor-0");
+        verify(plaidItemRepository).markSynced(eq(plaidItem.getId()), eq("cursor-2"), any());
+        assertThat(count("sync.transactions", "result", "duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    void errorInTheFetchStageEndsTheSyncInsteadOfHangingIt() {
+        TransactionsSyncResponse broken = mock(TransactionsSyncResponse.class);
+        when(broken.getNextCursor()).thenThrow(new AssertionError("broken response"));
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(broken);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                assertThatThrownBy(() -> syncService.syncTransactions(user))
+                        .isInstanceOf(AssertionError.class)
+                        .hasMessage("broken response"));
+        verify(plaidItemRepository, never()).markSynced(any(), any(), any());
+    }
+
+    @Test
+    void failingItemDoesNotBlockOtherItems() {
+        PlaidItem brokenItem = PlaidItem.builder().id(UUID.randomUUID()).user(user).accessToken("broken-token").build();
+        when(plaidItemRepository.findByUser(user)).thenReturn(List.of(brokenItem, plaidItem));
+        when(plaidService.syncTransactions("broken-token", null)).thenThrow(new RuntimeException("ITEM_LOGIN_REQUIRED"));
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-1", 12.5)))
+                .nextCursor("cursor-1")
+                .hasMore(false));
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of());
+
+        int saved = syncService.syncTransactions(user);
+
+        assertThat(saved).isEqualTo(1);
+        verify(plaidItemRepository, never()).markSynced(eq(brokenItem.getId()), any(), any());
+        verify(plaidItemRepository).markSynced(eq(plaidItem.getId()), eq("cursor-1"), any());
+    }
+
+    @Test
+    void manualSyncLeavesAnItemToTheBackgroundSyncOnIt() throws Exception {
+        ItemSyncGate gate = new ItemSyncGate();
+        Thread webhook = Thread.ofVirtual().start(() -> syncService.syncItem(plaidItem.getId()));
+        gate.started.await();
+
+        List<UUID> reported = new ArrayList<>();
+        int saved = syncService.syncTransactions(user, new SyncProgressListener() {
+            @Override
+            public void onItemSynced(UUID plaidItemId, int transactionsAdded) {
+                reported.add(plaidItemId);
+            }
+        });
+
+        // Reported without paging from the cursor the webhook's sync is moving
+        assertThat(saved).isZero();
+        assertThat(reported).containsExactly(plaidItem.getId());
+        verify(plaidService, times(1)).syncTransactions("access-token", null);
+
+        // The running sync makes one more pass for the manual request
+        gate.release.countDown();
+        webhook.join();
+        verify(plaidService, times(2)).syncTransactions("access-token", null);
+        assertThat(gate.maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void backgroundSyncsDuringAManualSyncAreFoldedIntoOneMorePass() throws Exception {
+        ItemSyncGate gate = new ItemSyncGate();
+        Thread manual = Thread.ofVirtual().start(() -> syncService.syncTransactions(user));
+        gate.started.await();
+
+        // A webhook and a scheduler tick for the same item return straight away
+        assertThat(syncService.syncItem(plaidItem.getId())).isZero();
+        assertThat(syncService.syncItem(plaidItem.getId())).isZero();
+        gate.release.countDown();
+        manual.join();
+
+        verify(plaidService, times(2)).syncTransactions("access-token", null);
+        assertThat(gate.maxRunning.get()).isEqualTo(1);
+
+        // Nothing left behind: the next sync runs again
+        syncService.syncItem(plaidItem.getId());
+        verify(plaidService, times(3)).syncTransactions("access-token", null);
+    }
+
+    // Holds every /transactions/sync call for the item until released, counting overlapping ones
+    private class ItemSyncGate {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+
+        ItemSyncGate() {
+            when(plaidItemRepository.findWithUserById(plaidItem.getId())).thenReturn(Optional.of(plaidItem));
+            when(plaidService.syncTransactions("access-token", null)).thenAnswer(invocation -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                release.await();
+                running.decrementAndGet();
+                return new TransactionsSyncResponse().added(List.of()).nextCursor("cursor-1").hasMore(false);
+            });
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appliesModificationsToExistingRows() {
+        plaidItem.setTransactionsCursor("cursor-1");
+        Transaction existing = Transaction.builder().account(account).plaidTransactionId("txn-1")
+                .amount(BigDecimal.ONE).date(LocalDate.of(2024, 1, 1)).description("Edited by user").build();
+
+        when(plaidService.syncTransactions(eq("access-token"), eq("cursor-1"))).thenReturn(new TransactionsSyncResponse()
+                .added(List.of())
+                .modified(List.of(plaidTransaction("txn-1", 42.0)))
+                .removed(List.of())
+                .nextCursor("cursor-2")
+                .hasMore(false));
+        when(transactionRepository.findByPlaidTransactionIdIn(anyCollection())).thenReturn(List.of(existing));
+
+        int saved = syncService.syncTransactions(user);
+
+        assertThat(saved).isZero();
+        assertThat(existing.getAmount()).isEqualByComparingTo("42.0");
+        assertThat(existing.getDescription()).isEqualTo("Edited by user");
+        ArgumentCaptor<Collection<Transaction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(transactionRepository, atLeastOnce()).saveAll(captor.capture());
+        assertThat(captor.getAllValues().get(0)).containsExactly(existing);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userRulesTakePrecedenceOverPlaidCategory() {
+        Category coffee = Category.builder().id(UUID.randomUUID()).user(user).name("Coffee").build();
+        when(categorizationRuleService.matcherFor(user.getId())).thenReturn(RuleMatcher.compile(List.of(
+                CategorizationRule.builder().keyword("coffee").category(coffee).priority(0)
+                        .matchType(CategorizationRule.MatchType.CONTAINS).build())));
+        when(categoryRepository.getReferenceById(coffee.getId())).thenReturn(coffee);
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(plaidTransaction("txn-1", 4.5)
+                        .personalFinanceCategory(new PersonalFinanceCategory().primary("FOOD_AND_DRINK"))))
+                .nextCursor("cursor-1")
+                .hasMore(false));
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of());
+
+        syncService.syncTransactions(user);
+
+        ArgumentCaptor<Collection<Transaction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(transactionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .satisfies(txn -> assertThat(txn.getCategory()).isSameAs(coffee));
+        // The Plaid category was never looked up or created
+        verify(categoryRepository, never()).findByUser(any());
+        verify(categoryRepository, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolvesPlaidCategoriesFromOneLoadAndCreatesMissingOnesTogether() {
+        Category travel = Category.builder().id(UUID.randomUUID()).user(user).name("travel").build();
+        Category food = Category.builder().id(UUID.randomUUID()).user(user).name("Food And Drink").build();
+        when(categoryRepository.findByUser(user))
+                .thenReturn(List.of(travel))
+                .thenReturn(List.of(travel, food));
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(
+                        plaidTransaction("txn-1", 4.5).personalFinanceCategory(new PersonalFinanceCategory().primary("FOOD_AND_DRINK")),
+                        plaidTransaction("txn-2", 6.0).personalFinanceCategory(new PersonalFinanceCategory().primary("FOOD_AND_DRINK")),
+                        plaidTransaction("txn-3", 300.0).personalFinanceCategory(new PersonalFinanceCategory().primary("TRAVEL"))))
+                .nextCursor("cursor-1")
+                .hasMore(false));
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of());
+
+        syncService.syncTransactions(user);
+
+        ArgumentCaptor<String[]> names = ArgumentCaptor.forClass(String[].class);
+        verify(categoryRepository).insertIfAbsent(eq(user.getId()), names.capture(), any());
+        assertThat(names.getValue()).containsExactly("Food And Drink");
+
+        ArgumentCaptor<Collection<Transaction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(transactionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Transaction::getCategory).containsExactly(food, food, travel);
+    }
+
+    @Test
+    void recordsRowOutcomesPerItem() {
+        PlaidItem brokenItem = PlaidItem.builder().id(UUID.randomUUID()).user(user).accessToken("broken-token").build();
+        when(plaidItemRepository.findByUser(user)).thenReturn(List.of(brokenItem, plaidItem));
+        when(plaidService.syncTransactions("broken-token", null)).thenThrow(new RuntimeException("ITEM_LOGIN_REQUIRED"));
+        when(plaidService.syncTransactions("access-token", null)).thenReturn(new TransactionsSyncResponse()
+                .added(List.of(
+                        plaidTransaction("txn-1", 1.0),
+                        plaidTransaction("txn-2", 2.0),
+                        plaidTransaction("txn-2", 2.0),
+                        plaidTransaction("txn-3", 3.0).accountId("acc-unknown")))
+                .removed(List.of(new RemovedTransaction().transactionId("txn-old")))
+                .nextCursor("cursor-1")
+                .hasMore(false));
+        // txn-1 is already stored
+        when(transactionRepository.findExistingPlaidTransactionIds(anyCollection())).thenReturn(Set.of("txn-1"));
+
+        syncService.syncTransactions(user);
+
+        assertThat(count("sync.items", "outcome", "success")).isEqualTo(1);
+        assertThat(count("sync.items", "outcome", "failure")).isEqualTo(1);
+        assertThat(count("sync.transactions", "result", "inserted")).isEqualTo(1);
+        assertThat(count("sync.transactions", "result", "duplicate")).isEqualTo(2);
+        assertThat(count("sync.transactions", "result", "unknown_account")).isEqualTo(1);
+        assertThat(count("sync.transactions", "result", "removed")).isEqualTo(1);
+        assertThat(count("sync.categorization", "source", "none")).isEqualTo(1);
+        assertThat(meterRegistry.get("sync.item.duration").tag("stage", "apply").timer().count()).isEqualTo(1);
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private com.plaid.client.model.Transaction plaidTransaction(String id, double amount) {
+        return new com.plaid.client.model.Transaction()
+                .transactionId(id)
+                .accountId("acc-1")
+                .amount(amount)
+                .date(LocalDate.of(2024, 1, 15))
+                .name("Coffee Shop");
+    }
+}
@@ -21,9 +21,33 @@ export interface Transaction {
   };
 }
 
-export interface SyncResponse {
-  status: string;
-  count: number;
+export interface CategorySpending {
+  categoryId: string | null; // null for uncategorized spending
+  name: string | null;
+  colorHex: string | null;
+  total: number;
+  transactionCount: number;
+}
+
+export interface SpendingSummary {
+  fromMonth: string | null;
+  toMonth: string | null;
+  total: number;
+  byCategory: CategorySpending[];
+  byMonth: { month: string; total: number; transactionCount: number }[];
+  byAccount: { accountId: string; name: string; total: number; transactionCount: number }[];
+}
+
+export type SyncJobStatus = 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+
+export interface SyncJob {
+  id: string;
+  status: SyncJobStatus;
+  itemsTotal: number;
+  itemsSynced: number;
+  itemsFailed: number;
+  transactionsAdded: number;
+  error?: string | null;
 }
 
 export const getTransactions = async (): Promise<Transaction[]> => {
@@ -31,9 +55,23 @@ export const getTransactions = async (): Promise<Transaction[]> => {
   return response.data;
 };
 
-export const syncTransactions = async (): Promise<SyncResponse> => {
-  const response = await axiosInstance.post<SyncResponse>('/transactions/sync');
-  return response.data || { status: 'UNKNOWN', count: 0 };
+// Totals are aggregated server-side; from/to are ISO dates rounded to whole months
+export const getSpendingSummary = async (from?: string, to?: string): Promise<SpendingSummary> => {
+  const response = await axiosInstance.get<SpendingSummary>('/analytics/spending', {
+    params: { from, to },
+  });
+  return response.data;
+};
+
+// Queues a sync job (or joins the one already running) and returns immediately
+export const syncTransactions = async (): Promise<SyncJob> => {
+  const response = await axiosInstance.post<SyncJob>('/transactions/sync');
+  return response.data;
+};
+
+export const getSyncJob = async (jobId: string): Promise<SyncJob> => {
+  const response = await axiosInstance.get<SyncJob>(`/transactions/sync/${jobId}`);
+  return response.data;
 };
 
 export interface UpdateTransactionRequest {
@@ -1,5 +1,6 @@
 import { useEffect, useState } from 'react';
 import { usePlaidLink } from 'react-plaid-link';
+import type { PlaidLinkOnSuccessMetadata } from 'react-plaid-link';
 import { Button } from '@mui/material';
 import axiosInstance from '../api/axiosConfig';
 
@@ -19,11 +20,12 @@ const LinkButton = () => {
     fetchLinkToken();
   }, []);
 
-  const onSuccess = async (publicToken: string) => {
+  const onSuccess = async (publicToken: string, metadata: PlaidLinkOnSuccessMetadata) => {
     try {
       // Send public_token to backend
       await axiosInstance.post('/plaid/public-token', {
         public_token: publicToken,
+        institution_name: metadata.institution?.name,
       });
       console.log('Bank connected successfully!');
       // TODO: Show success message or refresh data
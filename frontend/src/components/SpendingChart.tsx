@@ -1,10 +1,8 @@
+import { useEffect, useState } from 'react';
 import { PieChart, Pie, Cell, ResponsiveContainer, Legend, Tooltip } from 'recharts';
 import { Paper, Typography } from '@mui/material';
-import type { Transaction } from '../api/transactionService';
-
-interface SpendingChartProps {
-    transactions: Transaction[];
-}
+import { getSpendingSummary } from '../api/transactionService';
+import type { CategorySpending } from '../api/transactionService';
 
 interface CategoryData {
     name: string;
@@ -12,45 +10,29 @@ interface CategoryData {
     color: string;
 }
 
-// Simple color palette for the auto-generated categories
+// Fallback palette for categories without a color
 const COLORS = ['#0088FE', '#00C49F', '#FFBB28', '#FF8042', '#8884d8', '#82ca9d', '#ffc658'];
 
-const SpendingChart = ({ transactions }: SpendingChartProps) => {
-    // Safety check
-    if (!transactions || !Array.isArray(transactions)) {
-        return null;
-    }
-
-    // Aggregate transactions by category
-    const categoryMap = new Map<string, number>();
+const SpendingChart = () => {
+    const [categories, setCategories] = useState<CategorySpending[]>([]);
 
-    transactions.forEach((transaction) => {
-        // PLAID LOGIC: Positive amounts are typically expenses.
-        // We filter > 0 to capture your Uber/McDonalds/Starbucks charges.
-        if (transaction.amount > 0) {
+    useEffect(() => {
+        // Totals come pre-aggregated from the server instead of summing every transaction here
+        getSpendingSummary()
+            .then((summary) => setCategories(summary.byCategory ?? []))
+            .catch((error) => {
+                console.error('Error fetching spending summary:', error);
+                setCategories([]);
+            });
+    }, []);
 
-            // 1. Try Custom Category -> 2. Try Plaid Category -> 3. Default
-            let categoryName = transaction.category?.name
-                || transaction.plaidCategory
-                || 'Uncategorized';
-
-            // Clean up string: "FOOD_AND_DRINK" -> "FOOD AND DRINK"
-            categoryName = categoryName.replace(/_/g, ' ');
-
-            const currentTotal = categoryMap.get(categoryName) || 0;
-            categoryMap.set(categoryName, currentTotal + transaction.amount);
-        }
-    });
-
-    // Convert to array
-    const data: CategoryData[] = Array.from(categoryMap.entries()).map(
-        ([name, value], index) => ({
-            name,
-            value,
-            // Cycle through our color palette
-            color: COLORS[index % COLORS.length],
-        })
-    );
+    // Slices follow the user's own categories. Spending without one is a single "Uncategorized"
+    // slice; it is no longer split by Plaid's category, which the rollup does not keep.
+    const data: CategoryData[] = categories.map((category, index) => ({
+        name: category.name ?? 'Uncategorized',
+        value: Number(category.total),
+        color: category.colorHex || COLORS[index % COLORS.length],
+    }));
 
     if (data.length === 0) {
         return (
@@ -1,7 +1,20 @@
 import { useState } from 'react';
 import { Button, CircularProgress } from '@mui/material';
 import RefreshIcon from '@mui/icons-material/Refresh';
-import { syncTransactions } from '../api/transactionService';
+import { getSyncJob, syncTransactions } from '../api/transactionService';
+import type { SyncJob } from '../api/transactionService';
+
+const POLL_INTERVAL_MS = 1000;
+
+// Poll the job until the backend reports it finished
+const waitForJob = async (job: SyncJob): Promise<SyncJob> => {
+  let current = job;
+  while (current.status === 'QUEUED' || current.status === 'RUNNING') {
+    await new Promise((resolve) => setTimeout(resolve, POLL_INTERVAL_MS));
+    current = await getSyncJob(current.id);
+  }
+  return current;
+};
 
 const SyncButton = () => {
   const [loading, setLoading] = useState(false);
@@ -9,7 +22,10 @@ const SyncButton = () => {
   const handleSync = async () => {
     setLoading(true);
     try {
-      await syncTransactions();
+      const job = await waitForJob(await syncTransactions());
+      if (job.status === 'FAILED') {
+        throw new Error(job.error || 'Sync job failed');
+      }
       // Reload the page to show new data
       window.location.reload();
     } catch (error) {
@@ -48,7 +48,7 @@ const Dashboard = () => {
 
               {/* Left Column (Chart) - 40% width on desktop */}
               <Box sx={{ flex: { xs: '1 1 100%', md: '0 0 40%' } }}>
-                <SpendingChart transactions={transactions} />
+                <SpendingChart />
               </Box>
 
               {/* Right Column (Table) - Takes remaining space */}